@@ -0,0 +1,157 @@
+package com.trackmymoney.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps every Hikari pool (primary and read replicas) at its minimum idle
+ * count of warm, validated connections. A pool left at Hikari's default
+ * minimumIdle (= maximumPoolSize) is lowered to DB_POOL_MIN_IDLE; one whose
+ * minimumIdle was configured keeps it. Before the web server starts each
+ * pool is filled and every connection checked; afterwards a pool that has
+ * sat idle for DB_POOL_IDLE_EXERCISE_MS gets all its minimum connections
+ * borrowed at once, so Hikari's liveness check replaces any that went stale (and a
+ * serverless database is kept from suspending). Busy pools are left alone.
+ *
+ * Idleness is sampled every DB_POOL_CHECK_MS from active and waiting
+ * counts. Pool metrics (hikaricp.connections.active/idle/pending and the
+ * hikaricp.connections.acquire wait timer) come from Hikari itself.
+ */
+@Component
+public class ConnectionPoolManager implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolManager.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final ObjectProvider<HikariDataSource> pools;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
+    private final MeterRegistry meterRegistry;
+    private final int minIdle;
+    private final long idleExerciseMs;
+
+    // Pool -> when it was first seen idle (null while busy)
+    private final Map<HikariDataSource, Long> idleSince = new IdentityHashMap<>();
+
+    public ConnectionPoolManager(
+            ObjectProvider<HikariDataSource> pools,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+            MeterRegistry meterRegistry,
+            @Value("${DB_POOL_MIN_IDLE:2}") int minIdle,
+            @Value("${DB_POOL_IDLE_EXERCISE_MS:240000}") long idleExerciseMs
+    ) {
+        this.pools = pools;
+        this.replicaRouting = replicaRouting;
+        this.meterRegistry = meterRegistry;
+        this.minIdle = minIdle;
+        this.idleExerciseMs = idleExerciseMs;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (HikariDataSource pool : pools()) {
+            int configured = pool.getMinimumIdle();
+            // Unset is -1 before the pool starts and maximumPoolSize after
+            if (configured < 0 || configured == pool.getMaximumPoolSize()) {
+                int lowered = Math.min(minIdle, pool.getMaximumPoolSize());
+                pool.getHikariConfigMXBean().setMinimumIdle(lowered);
+                logger.info("Pool {} minimumIdle set from Hikari's default to DB_POOL_MIN_IDLE={}",
+                        pool.getPoolName(), lowered);
+            } else {
+                logger.info("Pool {} keeps its configured minimumIdle={}", pool.getPoolName(), configured);
+            }
+
+            int target = minimumIdle(pool);
+            int warmed = exercise(pool, "startup");
+            logger.info("Pool {} warmed with {}/{} connections", pool.getPoolName(), warmed, target);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${DB_POOL_CHECK_MS:30000}", initialDelayString = "${DB_POOL_CHECK_MS:30000}")
+    public synchronized void exerciseIdlePools() {
+        long now = System.currentTimeMillis();
+
+        for (HikariDataSource pool : pools()) {
+            HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+            if (stats == null) continue; // not started yet
+
+            if (stats.getActiveConnections() > 0 || stats.getThreadsAwaitingConnection() > 0) {
+                idleSince.remove(pool);
+                continue;
+            }
+
+            long since = idleSince.computeIfAbsent(pool, p -> now);
+            if (now - since >= idleExerciseMs) {
+                exercise(pool, "idle");
+                idleSince.put(pool, System.currentTimeMillis());
+            }
+        }
+    }
+
+    /**
+     * Borrows the pool's minimum idle connections together, so each one is
+     * a distinct connection that Hikari checks (and replaces if dead) on the
+     * way out. Returns how many were valid.
+     */
+    private int exercise(HikariDataSource pool, String reason) {
+        int target = minimumIdle(pool);
+        List<Connection> borrowed = new ArrayList<>(target);
+        int valid = 0;
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = pool.getConnection();
+                borrowed.add(connection);
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) valid++;
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not warm pool {} ({}): {}", pool.getPoolName(), reason, e.getMessage());
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.debug("Closing warmed connection failed", e);
+                }
+            }
+            sample.stop(Timer.builder("db.pool.warmup")
+                    .tag("pool", String.valueOf(pool.getPoolName()))
+                    .tag("reason", reason)
+                    .register(meterRegistry));
+        }
+
+        Counter.builder("db.pool.warmup.connections")
+                .tag("pool", String.valueOf(pool.getPoolName()))
+                .register(meterRegistry)
+                .increment(valid);
+        return valid;
+    }
+
+    private static int minimumIdle(HikariDataSource pool) {
+        return Math.min(pool.getHikariConfigMXBean().getMinimumIdle(), pool.getMaximumPoolSize());
+    }
+
+    private List<HikariDataSource> pools() {
+        List<HikariDataSource> all = new ArrayList<>(pools.orderedStream().toList());
+        replicaRouting.ifAvailable(routing -> all.addAll(routing.replicaPools()));
+        return all;
+    }
+}
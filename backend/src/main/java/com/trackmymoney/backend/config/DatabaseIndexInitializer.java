@@ -0,0 +1,78 @@
+package com.trackmymoney.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the covering and partial indexes from db/postgresql-indexes.sql
+ * once Hibernate has created/updated the tables and before the web server
+ * starts. Skipped for databases other than PostgreSQL.
+ */
+@Component
+public class DatabaseIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseIndexInitializer.class);
+
+    static final String INDEX_SCRIPT = "db/postgresql-indexes.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            logger.info("Skipping {} on {}", INDEX_SCRIPT, product);
+            return;
+        }
+
+        for (String statement : loadStatements()) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                // A missing index only costs speed; never block startup on it
+                logger.warn("Could not apply index statement [{}]: {}", statement, e.getMessage());
+            }
+        }
+    }
+
+    static List<String> loadStatements() {
+        try {
+            String script = new String(
+                    new ClassPathResource(INDEX_SCRIPT).getInputStream().readAllBytes(),
+                    StandardCharsets.UTF_8
+            );
+            List<String> statements = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+
+            for (String line : script.split("\\R")) {
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+
+                current.append(trimmed).append(' ');
+                if (trimmed.endsWith(";")) {
+                    statements.add(current.substring(0, current.lastIndexOf(";")).strip());
+                    current.setLength(0);
+                }
+            }
+            return statements;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + INDEX_SCRIPT, e);
+        }
+    }
+}
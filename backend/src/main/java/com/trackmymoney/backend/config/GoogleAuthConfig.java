@@ -0,0 +1,73 @@
+package com.trackmymoney.backend.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.trackmymoney.backend.security.FileCertsHttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * One shared Google ID token verifier. GooglePublicKeysManager caches the
+ * signing certificates for as long as the certs response's Cache-Control
+ * max-age allows; the scheduled refresh below keeps that cache warm so a
+ * login almost never waits on the certificate fetch.
+ */
+@Configuration
+public class GoogleAuthConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleAuthConfig.class);
+
+    @Value("${GOOGLE_CLIENT_ID:YOUR_GOOGLE_CLIENT_ID.apps.googleusercontent.com}")
+    private String clientId;
+
+    // Optional local certificates file (tests / offline); empty = fetch from Google
+    @Value("${GOOGLE_CERTS_FILE:}")
+    private String certsFile;
+
+    @Value("${GOOGLE_CERTS_FILE_MAX_AGE_SECONDS:3600}")
+    private long certsFileMaxAgeSeconds;
+
+    @Bean
+    public GooglePublicKeysManager googlePublicKeysManager() {
+        HttpTransport transport = certsFile.isBlank()
+                ? new NetHttpTransport()
+                : new FileCertsHttpTransport(Path.of(certsFile), certsFileMaxAgeSeconds);
+
+        return new GooglePublicKeysManager.Builder(transport, GsonFactory.getDefaultInstance())
+                .build();
+    }
+
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager) {
+        return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+                .setAudience(List.of(clientId))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpGoogleKeys() {
+        refreshGoogleKeys();
+    }
+
+    // getPublicKeys() only refetches when the cached certs are close to expiry
+    @Scheduled(fixedDelayString = "${GOOGLE_CERTS_REFRESH_MS:600000}", initialDelayString = "${GOOGLE_CERTS_REFRESH_MS:600000}")
+    public void refreshGoogleKeys() {
+        try {
+            googlePublicKeysManager().getPublicKeys();
+        } catch (Exception e) {
+            logger.warn("Could not refresh Google signing keys: {}", e.getMessage());
+        }
+    }
+}
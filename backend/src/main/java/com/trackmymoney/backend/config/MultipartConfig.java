@@ -0,0 +1,27 @@
+package com.trackmymoney.backend.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Form uploads get the same IMPORT_MAX_FILE_SIZE as raw import bodies in
+ * every profile. Production has no properties file, so without this bean
+ * Spring's 1MB multipart default would apply there.
+ */
+@Configuration
+public class MultipartConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(
+            @Value("${IMPORT_MAX_FILE_SIZE:50MB}") DataSize maxFileSize) {
+
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setMaxFileSize(maxFileSize);
+        factory.setMaxRequestSize(maxFileSize);
+        return factory.createMultipartConfig();
+    }
+}
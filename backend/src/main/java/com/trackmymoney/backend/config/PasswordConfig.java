@@ -1,5 +1,6 @@
 package com.trackmymoney.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +9,13 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordConfig {
 
+    // Raising the strength is safe: older hashes still verify and are
+    // re-hashed on the next successful login (see PasswordHashingService)
+    @Value("${BCRYPT_STRENGTH:10}")
+    private int strength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -0,0 +1,88 @@
+package com.trackmymoney.backend.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by READ_REPLICA_URLS (comma-separated JDBC URLs).
+ * Without it Spring Boot's single datasource is used unchanged. Replicas
+ * share the primary's credentials and driver unless READ_REPLICA_USERNAME/
+ * READ_REPLICA_PASSWORD are set; a replica that is down at startup is
+ * simply left out of rotation until its health check passes.
+ */
+@Configuration
+@ConditionalOnExpression("!'${READ_REPLICA_URLS:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${READ_REPLICA_URLS}") String urls,
+            @Value("${READ_REPLICA_USERNAME:}") String username,
+            @Value("${READ_REPLICA_PASSWORD:}") String password,
+            @Value("${READ_REPLICA_POOL_SIZE:5}") int poolSize,
+            @Value("${READ_REPLICA_MAX_LAG_SECONDS:30}") long maxLagSeconds,
+            @Value("${READ_REPLICA_HEALTH_INTERVAL_MS:10000}") long healthIntervalMs,
+            @Value("${READ_YOUR_WRITES_SECONDS:60}") long readYourWritesSeconds
+    ) {
+        // A replica stays in rotation until a check sees it past the lag limit, so it can be up
+        // to max lag plus one check interval behind; a shorter window would serve a writer old data
+        long worstLagSeconds = maxLagSeconds + (healthIntervalMs + 999) / 1000;
+        if (readYourWritesSeconds < worstLagSeconds) {
+            throw new IllegalStateException("READ_YOUR_WRITES_SECONDS (" + readYourWritesSeconds
+                    + ") must be at least READ_REPLICA_MAX_LAG_SECONDS plus the health check interval ("
+                    + worstLagSeconds + "s)");
+        }
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) continue;
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.strip());
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setMaximumPoolSize(poolSize);
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagSeconds,
+                Duration.ofSeconds(readYourWritesSeconds), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,248 @@
+package com.trackmymoney.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trackmymoney.backend.security.SecurityUtils;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of @Transactional(readOnly = true) work to a healthy
+ * replica (round robin) and everything else to the primary. Must sit behind
+ * a LazyConnectionDataSourceProxy: the transaction manager asks for a
+ * connection before the read-only flag is bound, the proxy defers the real
+ * lookup to the first statement.
+ *
+ * A replica is skipped while it is unreachable or lagging more than the
+ * configured limit; with none left, reads fall back to the primary. A user
+ * whose write committed within the read-your-writes window keeps reading
+ * from the primary, so they never see their own change missing; the window
+ * must outlast the worst lag a replica can have while still in rotation.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    // Seconds the replica is behind; 0 when it has replayed everything it received
+    private static final String LAG_SQL = "SELECT COALESCE(CASE"
+            + " WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END, 0)";
+
+    // Set by readsReplica for the work it runs
+    private static final ThreadLocal<boolean[]> replicaReads = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final Cache<Long, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+    private final Counter stickyReads;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<HikariDataSource> replicaPools,
+                                    long maxLagSeconds,
+                                    Duration readYourWrites,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLagSeconds;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.name, replica.pool);
+
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.fallbacks = Counter.builder("datasource.replica.fallbacks").register(meterRegistry);
+        this.stickyReads = Counter.builder("datasource.replica.sticky.reads").register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = SecurityUtils.findCurrentUserId();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(userId);
+            return PRIMARY;
+        }
+
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            stickyReads.increment();
+            return PRIMARY;
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Runs work on this thread and says whether any connection it took came
+     * from a replica, i.e. whether it may have read data older than the
+     * primary's. Always false without replicas.
+     */
+    public static boolean readsReplica(Runnable work) {
+        boolean[] outer = replicaReads.get();
+        boolean[] used = {false};
+        replicaReads.set(used);
+        try {
+            work.run();
+        } finally {
+            replicaReads.set(outer);
+            if (outer != null && used[0]) outer[0] = true;
+        }
+        return used[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            Connection connection = target.getConnection();
+            boolean[] tracked = replicaReads.get();
+            if (tracked != null && target != primary) tracked[0] = true;
+            return connection;
+        } catch (SQLException e) {
+            Replica replica = replicaFor(target);
+            if (replica == null) throw e;
+
+            // Don't fail the read because a replica went away between health checks
+            replica.markDown(e.getMessage());
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${READ_REPLICA_HEALTH_INTERVAL_MS:10000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+
+                double lag = 0;
+                if ("PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+                    try (ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                        rs.next();
+                        lag = rs.getDouble(1);
+                    }
+                } else if (!connection.isValid(5)) {
+                    replica.markDown("connection not valid");
+                    continue;
+                }
+
+                replica.lagSeconds = lag;
+                if (lag > maxLagSeconds) {
+                    replica.markDown("lagging " + Math.round(lag) + "s");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    public List<HikariDataSource> replicaPools() {
+        return replicas.stream().map(replica -> replica.pool).toList();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**
+     * Keeps the user's reads on the primary for the read-your-writes window.
+     * For writes made outside a request (no SecurityContext) or outside a
+     * transaction, which routing cannot attribute to a user on its own.
+     */
+    public void rememberWrite(Long userId) {
+        if (userId != null) recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    private void rememberWriteOnCommit(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rememberWrite(userId);
+            }
+        });
+    }
+
+    private Replica replicaFor(DataSource target) {
+        for (Replica replica : replicas) {
+            if (replica.pool == target) return replica;
+        }
+        return null;
+    }
+
+    private static final class Replica {
+
+        final String name;
+        final HikariDataSource pool;
+        volatile boolean healthy = true;
+        volatile double lagSeconds;
+
+        Replica(HikariDataSource pool) {
+            this.name = pool.getPoolName();
+            this.pool = pool;
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                logger.warn("Read replica {} taken out of rotation: {}", name, reason);
+            }
+            healthy = false;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                logger.info("Read replica {} back in rotation", name);
+            }
+            healthy = true;
+        }
+    }
+}
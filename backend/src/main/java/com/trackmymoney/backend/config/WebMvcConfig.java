@@ -0,0 +1,25 @@
+package com.trackmymoney.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed exports run as async requests; without a timeout here Tomcat's
+ * 30 second default would cut a long download off mid-file.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final long asyncTimeoutMs;
+
+    public WebMvcConfig(@Value("${ASYNC_REQUEST_TIMEOUT_MS:600000}") long asyncTimeoutMs) {
+        this.asyncTimeoutMs = asyncTimeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+}
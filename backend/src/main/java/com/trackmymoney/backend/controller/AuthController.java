@@ -2,17 +2,18 @@ package com.trackmymoney.backend.controller;
 
 import com.trackmymoney.backend.dto.*;
 import com.trackmymoney.backend.entity.User;
+import com.trackmymoney.backend.exception.ServiceBusyException;
 import com.trackmymoney.backend.repository.UserRepository;
 import com.trackmymoney.backend.security.JwtUtil;
+import com.trackmymoney.backend.security.PasswordHashingService;
+import com.trackmymoney.backend.security.RefreshTokenService;
+import com.trackmymoney.backend.security.VerifiedToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
-import java.util.Collections;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -20,15 +21,21 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
 
     public AuthController(UserRepository userRepository,
-                          PasswordEncoder passwordEncoder,
-                          JwtUtil jwtUtil) {
+                          PasswordHashingService passwordHashingService,
+                          JwtUtil jwtUtil,
+                          RefreshTokenService refreshTokenService,
+                          GoogleIdTokenVerifier googleIdTokenVerifier) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.googleIdTokenVerifier = googleIdTokenVerifier;
     }
 
     @GetMapping("/health")
@@ -48,7 +55,7 @@ public class AuthController {
         User user = new User();
         user.setName(request.getName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
 
         userRepository.save(user);
 
@@ -62,38 +69,58 @@ public class AuthController {
         var user = userRepository.findByEmail(request.getEmail())
                 .orElse(null);
 
-        if (user == null || !passwordEncoder.matches(
+        if (user == null || !passwordHashingService.matches(
                 request.getPassword(),
                 user.getPassword())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ErrorResponse("Invalid email or password"));
         }
 
-        String token = jwtUtil.generateToken(user.getEmail());
+        // BCrypt strength was raised since this hash was made: upgrade it in the background
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            Long userId = user.getId();
+            String oldHash = user.getPassword();
+            passwordHashingService.rehashAsync(request.getPassword(), newHash ->
+                    userRepository.updatePasswordIfUnchanged(userId, oldHash, newHash));
+        }
+
+        return ResponseEntity.ok(toAuthResponse(refreshTokenService.issue(user)));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(
+            @Valid @RequestBody RefreshTokenRequest request) {
 
         return ResponseEntity.ok(
-                new AuthResponse(
-                        token,
-                        user.getName(),
-                        user.getEmail()
-                )
+                toAuthResponse(refreshTokenService.rotate(request.getRefreshToken()))
+        );
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+
+        VerifiedToken accessToken = null;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                accessToken = jwtUtil.verify(authHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Expired or invalid: nothing left to revoke
+            }
+        }
+
+        refreshTokenService.logout(
+                request != null ? request.getRefreshToken() : null,
+                accessToken
         );
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/google")
     public ResponseEntity<?> googleLogin(@Valid @RequestBody GoogleLoginRequest request) {
         try {
-            NetHttpTransport transport = new NetHttpTransport();
-            GsonFactory jsonFactory = new GsonFactory();
-
-            // Client ID should be configured via application.properties usually
-            String clientId = "YOUR_GOOGLE_CLIENT_ID.apps.googleusercontent.com";
-
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(transport, jsonFactory)
-                    .setAudience(Collections.singletonList(clientId))
-                    .build();
-
-            GoogleIdToken idToken = verifier.verify(request.getToken());
+            GoogleIdToken idToken = googleIdTokenVerifier.verify(request.getToken());
             if (idToken == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Invalid Google token"));
@@ -108,16 +135,26 @@ public class AuthController {
                 newUser.setName(name != null ? name : "Google User");
                 newUser.setEmail(email);
                 // Random password since they login via Google
-                newUser.setPassword(passwordEncoder.encode(java.util.UUID.randomUUID().toString()));
+                newUser.setPassword(passwordHashingService.encode(java.util.UUID.randomUUID().toString()));
                 return userRepository.save(newUser);
             });
 
-            String token = jwtUtil.generateToken(user.getEmail());
-            return ResponseEntity.ok(new AuthResponse(token, user.getName(), user.getEmail()));
+            return ResponseEntity.ok(toAuthResponse(refreshTokenService.issue(user)));
 
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Google authentication failed: " + e.getMessage()));
         }
     }
+
+    private AuthResponse toAuthResponse(RefreshTokenService.IssuedTokens tokens) {
+        return new AuthResponse(
+                tokens.accessToken(),
+                tokens.refreshToken(),
+                tokens.user().getName(),
+                tokens.user().getEmail()
+        );
+    }
 }
@@ -1,12 +1,16 @@
 package com.trackmymoney.backend.controller;
 
+import com.trackmymoney.backend.dto.BulkSettleRequest;
+import com.trackmymoney.backend.dto.BulkSettleResponse;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.BorrowingRequest;
 import com.trackmymoney.backend.dto.BorrowingResponse;
 import com.trackmymoney.backend.service.BorrowingService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/borrowings")
 public class BorrowingController {
@@ -18,21 +22,32 @@ public class BorrowingController {
     }
 
     @PostMapping
-    public BorrowingResponse create(@RequestBody BorrowingRequest request) {
-        return borrowingService.add(request);
+    public ResponseEntity<BorrowingResponse> create(@RequestBody BorrowingRequest request) {
+        BorrowingResponse created = borrowingService.add(request);
+        return ResponseEntity.ok().eTag(ETags.of(created.getVersion())).body(created);
     }
 
+    // Keyset-paginated, newest first; all=true returns the full list (legacy clients)
     @GetMapping
-    public List<BorrowingResponse> getAll() {
-        return borrowingService.getAll();
+    public Object getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "false") boolean all
+    ) {
+        if (all) {
+            return borrowingService.getAll();
+        }
+        return borrowingService.getPage(cursor, CursorPage.clampLimit(limit));
     }
 
     @PutMapping("/{id}")
-    public BorrowingResponse update(
+    public ResponseEntity<BorrowingResponse> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody BorrowingRequest request
     ) {
-        return borrowingService.update(id, request);
+        BorrowingResponse updated = borrowingService.update(id, request, ETags.parseIfMatch(ifMatch, "borrowing"));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -44,4 +59,10 @@ public class BorrowingController {
     public void settle(@PathVariable Long id) {
         borrowingService.settle(id);
     }
+
+    // Settles the listed ids, or every open item for one counterparty
+    @PutMapping("/settle")
+    public BulkSettleResponse settleAll(@Valid @RequestBody BulkSettleRequest request) {
+        return new BulkSettleResponse(borrowingService.settleAll(request));
+    }
 }
@@ -0,0 +1,64 @@
+package com.trackmymoney.backend.controller;
+
+import com.trackmymoney.backend.service.ReportCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * Answers a report or export download from ReportCache: 304 when the client
+ * already has this render, the cached bytes with their ETag on a hit, and a
+ * fresh render copied into the cache on a miss. A miss streams before the
+ * digest is known, so its response carries no ETag; the next request does.
+ */
+final class CachedDownloads {
+
+    private CachedDownloads() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> serve(ReportCache reportCache,
+                                                       ReportCache.Key key,
+                                                       String ifNoneMatch,
+                                                       MediaType contentType,
+                                                       String filename,
+                                                       Consumer<OutputStream> renderer) {
+        // Revalidate every time: the data version, not a max-age, says when a report is stale
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        ReportCache.Entry cached = reportCache.get(key);
+
+        if (cached != null && ETags.matches(ifNoneMatch, cached.etag())) {
+            reportCache.release(cached);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(cached.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(contentType)
+                .cacheControl(cacheControl);
+
+        if (cached != null) {
+            return response
+                    .eTag(cached.etag())
+                    .contentLength(cached.size())
+                    .body(out -> {
+                        // The file stays on disk until this download is done with it
+                        try {
+                            cached.writeTo(out);
+                        } finally {
+                            reportCache.release(cached);
+                        }
+                    });
+        }
+
+        return response.body(out -> reportCache.renderThrough(key, out, renderer));
+    }
+}
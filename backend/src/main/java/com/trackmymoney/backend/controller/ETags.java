@@ -0,0 +1,60 @@
+package com.trackmymoney.backend.controller;
+
+import com.trackmymoney.backend.exception.PreconditionFailedException;
+
+/**
+ * Record versions travel as strong ETags: "3". Cached reports use their
+ * content digest instead.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Version from an If-Match header, or null when the header is absent or
+     * "*" (the legacy, unconditional update). If-Match uses strong comparison
+     * (RFC 9110), so a weak W/ tag never matches.
+     */
+    static Long parseIfMatch(String ifMatch, String resource) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException(resource, "If-Match needs a strong ETag; weak tags never match");
+        }
+        tag = tag.replace("\"", "");
+
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException(resource, "If-Match does not match any version of this " + resource);
+        }
+    }
+
+    /**
+     * Whether an If-None-Match header names this ETag. Weak comparison, as
+     * RFC 9110 asks for If-None-Match: a W/ prefix is ignored.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        if (ifNoneMatch.strip().equals("*")) {
+            return true;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -1,9 +1,11 @@
 package com.trackmymoney.backend.controller;
 
 import com.trackmymoney.backend.dto.CreateExpenseRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.ExpenseResponse;
 import com.trackmymoney.backend.service.ExpenseService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,10 +22,19 @@ public class ExpenseController {
         this.expenseService = expenseService;
     }
 
+    // Keyset-paginated, newest first; all=true returns the full list (legacy clients)
     @GetMapping
-    public ResponseEntity<List<ExpenseResponse>> getMyExpenses() {
+    public ResponseEntity<?> getMyExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "false") boolean all) {
+
+        if (all) {
+            return ResponseEntity.ok(expenseService.getExpensesForCurrentUser());
+        }
+
         return ResponseEntity.ok(
-                expenseService.getExpensesForCurrentUser()
+                expenseService.getExpensesPageForCurrentUser(cursor, CursorPage.clampLimit(limit))
         );
     }
 
@@ -42,20 +53,24 @@ public class ExpenseController {
     public ResponseEntity<ExpenseResponse> addExpense(
             @Valid @RequestBody CreateExpenseRequest request) {
 
-        return new ResponseEntity<>(
-                expenseService.addExpense(request),
-                HttpStatus.CREATED
-        );
+        ExpenseResponse created = expenseService.addExpense(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(ETags.of(created.getVersion()))
+                .body(created);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ExpenseResponse> updateExpense(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CreateExpenseRequest request) {
 
-        return ResponseEntity.ok(
-                expenseService.updateExpense(id, request)
+        ExpenseResponse updated = expenseService.updateExpense(
+                id, request, ETags.parseIfMatch(ifMatch, "expense")
         );
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updated.getVersion()))
+                .body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -1,18 +1,15 @@
 package com.trackmymoney.backend.controller;
 
-import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.repository.UserRepository;
 import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.ExportService;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import com.trackmymoney.backend.service.ReportCache;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 
 @RestController
@@ -20,54 +17,46 @@ import java.time.LocalDate;
 public class ExportController {
 
     private final ExportService exportService;
-    private final UserRepository userRepository;
+    private final ReportCache reportCache;
 
-    public ExportController(ExportService exportService, UserRepository userRepository) {
+    public ExportController(ExportService exportService, ReportCache reportCache) {
         this.exportService = exportService;
-        this.userRepository = userRepository;
+        this.reportCache = reportCache;
     }
 
     @GetMapping("/{type}/csv")
-    public ResponseEntity<Resource> exportCsv(
+    public ResponseEntity<StreamingResponseBody> exportCsv(
             @PathVariable String type,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        User user = getLoggedInUser();
+        Long userId = SecurityUtils.getCurrentUserId();
         LocalDate start = (startDate != null) ? startDate : LocalDate.now().minusYears(1);
         LocalDate end = (endDate != null) ? endDate : LocalDate.now();
 
         String filename = type + "_report_" + LocalDate.now() + ".csv";
-        ByteArrayInputStream data = exportService.exportDataToCsv(type, start, end, user.getId());
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.parseMediaType("application/csv"))
-                .body(new InputStreamResource(data));
+        // Written on an MVC async thread while rows are still being read
+        ReportCache.Key key = reportCache.key(userId, "export-csv", type, start, end);
+        return CachedDownloads.serve(reportCache, key, ifNoneMatch, MediaType.parseMediaType("application/csv"),
+                filename, out -> exportService.exportCsv(type, start, end, userId, out));
     }
 
     @GetMapping("/{type}/pdf")
-    public ResponseEntity<Resource> exportPdf(
+    public ResponseEntity<StreamingResponseBody> exportPdf(
             @PathVariable String type,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        User user = getLoggedInUser();
+        Long userId = SecurityUtils.getCurrentUserId();
         LocalDate start = (startDate != null) ? startDate : LocalDate.now().minusYears(1);
         LocalDate end = (endDate != null) ? endDate : LocalDate.now();
 
         String filename = type + "_report_" + LocalDate.now() + ".pdf";
-        ByteArrayInputStream data = exportService.exportDataToPdf(type, start, end, user.getId());
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(new InputStreamResource(data));
-    }
-
-    private User getLoggedInUser() {
-        String email = SecurityUtils.getCurrentUserEmail();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        ReportCache.Key key = reportCache.key(userId, "export-pdf", type, start, end);
+        return CachedDownloads.serve(reportCache, key, ifNoneMatch, MediaType.APPLICATION_PDF,
+                filename, out -> exportService.exportPdf(type, start, end, userId, out));
     }
 }
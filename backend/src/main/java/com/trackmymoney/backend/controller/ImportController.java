@@ -0,0 +1,116 @@
+package com.trackmymoney.backend.controller;
+
+import com.trackmymoney.backend.dto.ImportResult;
+import com.trackmymoney.backend.exception.PayloadTooLargeException;
+import com.trackmymoney.backend.security.SecurityUtils;
+import com.trackmymoney.backend.service.ImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final ImportService importService;
+    private final long maxBodyBytes;
+
+    public ImportController(ImportService importService,
+                            @Value("${IMPORT_MAX_FILE_SIZE:50MB}") DataSize maxBodySize) {
+        this.importService = importService;
+        this.maxBodyBytes = maxBodySize.toBytes();
+    }
+
+    // Form upload: format is taken from the file's content type or extension
+    @PostMapping(value = "/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ImportResult importFile(
+            @PathVariable String type,
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        boolean json = isJson(file.getContentType())
+                || (file.getOriginalFilename() != null
+                    && file.getOriginalFilename().toLowerCase().endsWith(".json"));
+
+        try (InputStream in = file.getInputStream()) {
+            return importService.importRows(type, json, in, SecurityUtils.getCurrentUserId());
+        }
+    }
+
+    // Raw body: read straight from the request stream, held to the same
+    // IMPORT_MAX_FILE_SIZE as a form upload
+    @PostMapping(value = "/{type}", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ImportResult importBody(
+            @PathVariable String type,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream body) {
+
+        // A declared length is checked before any row is saved; a chunked
+        // body is cut off once it reads past the limit, and the result
+        // reports the row the import stopped at
+        if (contentLength != null && contentLength > maxBodyBytes) {
+            throw tooLarge();
+        }
+        return importService.importRows(type, isJson(contentType), new LimitedInputStream(body, maxBodyBytes),
+                SecurityUtils.getCurrentUserId());
+    }
+
+    private boolean isJson(String contentType) {
+        return contentType != null && contentType.toLowerCase().contains("json");
+    }
+
+    private PayloadTooLargeException tooLarge() {
+        return new PayloadTooLargeException("Import body is larger than " + maxBodyBytes + " bytes");
+    }
+
+    // Fails the read that goes past the limit; importRows keeps the rows read before it
+    private final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) {
+            remaining -= n;
+            if (remaining < 0) {
+                throw tooLarge();
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.trackmymoney.backend.controller;
 
 import com.trackmymoney.backend.dto.CreateIncomeRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.IncomeResponse;
 import com.trackmymoney.backend.service.IncomeService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,20 +27,24 @@ public class IncomeController {
     public ResponseEntity<IncomeResponse> addIncome(
             @Valid @RequestBody CreateIncomeRequest request
     ) {
-        return new ResponseEntity<>(
-                incomeService.addIncome(request),
-                HttpStatus.CREATED
-        );
+        IncomeResponse created = incomeService.addIncome(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(ETags.of(created.getVersion()))
+                .body(created);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<IncomeResponse> updateIncome(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CreateIncomeRequest request) {
 
-        return ResponseEntity.ok(
-                incomeService.updateIncome(id, request)
+        IncomeResponse updated = incomeService.updateIncome(
+                id, request, ETags.parseIfMatch(ifMatch, "income")
         );
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updated.getVersion()))
+                .body(updated);
     }
 
 
@@ -48,10 +54,19 @@ public class IncomeController {
         return ResponseEntity.noContent().build();
     }
 
+    // Keyset-paginated, newest first; all=true returns the full list (legacy clients)
     @GetMapping
-    public ResponseEntity<List<IncomeResponse>> getAllIncomes() {
+    public ResponseEntity<?> getAllIncomes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "false") boolean all
+    ) {
+        if (all) {
+            return ResponseEntity.ok(incomeService.getIncomesForCurrentUser());
+        }
+
         return ResponseEntity.ok(
-                incomeService.getIncomesForCurrentUser()
+                incomeService.getIncomesPageForCurrentUser(cursor, CursorPage.clampLimit(limit))
         );
     }
 
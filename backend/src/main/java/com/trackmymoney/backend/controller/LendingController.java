@@ -1,12 +1,16 @@
 package com.trackmymoney.backend.controller;
 
+import com.trackmymoney.backend.dto.BulkSettleRequest;
+import com.trackmymoney.backend.dto.BulkSettleResponse;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.LendingRequest;
 import com.trackmymoney.backend.dto.LendingResponse;
 import com.trackmymoney.backend.service.LendingService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/lendings")
 public class LendingController {
@@ -18,21 +22,32 @@ public class LendingController {
     }
 
     @PostMapping
-    public LendingResponse create(@RequestBody LendingRequest request) {
-        return lendingService.create(request);
+    public ResponseEntity<LendingResponse> create(@RequestBody LendingRequest request) {
+        LendingResponse created = lendingService.create(request);
+        return ResponseEntity.ok().eTag(ETags.of(created.version())).body(created);
     }
 
+    // Keyset-paginated, newest first; all=true returns the full list (legacy clients)
     @GetMapping
-    public List<LendingResponse> getAll() {
-        return lendingService.getAll();
+    public Object getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "false") boolean all
+    ) {
+        if (all) {
+            return lendingService.getAll();
+        }
+        return lendingService.getPage(cursor, CursorPage.clampLimit(limit));
     }
 
     @PutMapping("/{id}")
-    public LendingResponse update(
+    public ResponseEntity<LendingResponse> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody LendingRequest request
     ) {
-        return lendingService.update(id, request);
+        LendingResponse updated = lendingService.update(id, request, ETags.parseIfMatch(ifMatch, "lending"));
+        return ResponseEntity.ok().eTag(ETags.of(updated.version())).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -44,4 +59,10 @@ public class LendingController {
     public void settle(@PathVariable Long id) {
         lendingService.settle(id);
     }
+
+    // Settles the listed ids, or every open item for one counterparty
+    @PutMapping("/settle")
+    public BulkSettleResponse settleAll(@Valid @RequestBody BulkSettleRequest request) {
+        return new BulkSettleResponse(lendingService.settleAll(request));
+    }
 }
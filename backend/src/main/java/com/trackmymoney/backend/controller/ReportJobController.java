@@ -0,0 +1,78 @@
+package com.trackmymoney.backend.controller;
+
+import com.trackmymoney.backend.dto.ReportJobRequest;
+import com.trackmymoney.backend.dto.ReportJobStatus;
+import com.trackmymoney.backend.security.SecurityUtils;
+import com.trackmymoney.backend.service.ReportJobService;
+import com.trackmymoney.backend.service.ReportJobService.ReportFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+public class ReportJobController {
+
+    // Tomcat's sendfile hand-off (NIO connector): the file is written by the kernel after we return
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ReportJobService reportJobService;
+
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportJobStatus> submit(@Valid @RequestBody ReportJobRequest request) {
+        ReportJobStatus status = reportJobService.submit(SecurityUtils.getCurrentUser(), request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + status.jobId()))
+                .body(status);
+    }
+
+    @GetMapping("/{jobId}")
+    public ReportJobStatus status(@PathVariable String jobId) {
+        return reportJobService.status(SecurityUtils.getCurrentUserId(), jobId);
+    }
+
+    @GetMapping("/{jobId}/file")
+    public void download(@PathVariable String jobId,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+
+        ReportFile file = reportJobService.file(SecurityUtils.getCurrentUserId(), jobId);
+
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(file.size());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + file.filename());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.size());
+            return;
+        }
+
+        // Otherwise let the JDK move the bytes channel to channel, without our own buffer
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < file.size()) {
+                position += channel.transferTo(position, file.size() - position, target);
+            }
+        }
+    }
+}
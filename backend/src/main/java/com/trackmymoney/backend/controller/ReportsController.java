@@ -1,88 +1,100 @@
 package com.trackmymoney.backend.controller;
 
-import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.exception.UserNotFoundException;
-import com.trackmymoney.backend.repository.UserRepository;
+import com.trackmymoney.backend.security.CurrentUser;
+import com.trackmymoney.backend.security.SecurityUtils;
+import com.trackmymoney.backend.service.ReportCache;
 import com.trackmymoney.backend.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/reports")
 public class ReportsController {
 
     @Autowired
-    private UserRepository userRepository;
+    private ReportService reportService;
 
     @Autowired
-    private ReportService reportService;
+    private ReportCache reportCache;
 
     /**
-     * Helper method to get the currently logged-in user.
+     * Helper method to get the currently logged-in user (from the security context, no DB lookup).
      */
-    private User getAuthenticatedUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    private CurrentUser getAuthenticatedUser() {
+        return SecurityUtils.getCurrentUser();
     }
 
     /**
-     * Helper method to send the PDF bytes back to the browser with correct headers.
+     * Helper method to stream the PDF to the browser with correct headers,
+     * from the report cache when this user's data has not changed since.
+     * The month is checked first: once streaming starts the status is already 200.
      */
-    private ResponseEntity<byte[]> servePdf(byte[] pdfContent, String filename) {
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfContent);
+    private ResponseEntity<StreamingResponseBody> servePdf(CurrentUser user, String report, int year, String month,
+                                                           String ifNoneMatch, Consumer<OutputStream> pdfContent,
+                                                           String filename) {
+        reportService.monthStart(year, month);
+
+        // The header prints the name and email from the token, which a profile edit can change
+        ReportCache.Key key = reportCache.key(user.getId(), report, year, month.toUpperCase(Locale.ROOT),
+                String.valueOf(user.getName()), String.valueOf(user.getEmail()));
+        return CachedDownloads.serve(reportCache, key, ifNoneMatch, MediaType.APPLICATION_PDF, filename, pdfContent);
     }
 
     // ==================== ENDPOINTS ====================
 
     @GetMapping("/finance-report")
-    public ResponseEntity<byte[]> downloadFinanceReport(
+    public ResponseEntity<StreamingResponseBody> downloadFinanceReport(
             @RequestParam int year, 
-            @RequestParam String month) {
+            @RequestParam String month,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        User user = getAuthenticatedUser();
-        byte[] pdfBytes = reportService.generateFinanceReport(user, year, month);
+        CurrentUser user = getAuthenticatedUser();
+        Consumer<OutputStream> pdf = out -> reportService.generateFinanceReport(user, year, month, out);
         
-        return servePdf(pdfBytes, "Finance_Report_" + month + "_" + year + ".pdf");
+        return servePdf(user, "finance", year, month, ifNoneMatch, pdf, "Finance_Report_" + month + "_" + year + ".pdf");
     }
 
     @GetMapping("/expense-report")
-    public ResponseEntity<byte[]> downloadExpenseReport(
+    public ResponseEntity<StreamingResponseBody> downloadExpenseReport(
             @RequestParam int year, 
-            @RequestParam String month) {
+            @RequestParam String month,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        User user = getAuthenticatedUser();
-        byte[] pdfBytes = reportService.generateExpenseReport(user, year, month);
+        CurrentUser user = getAuthenticatedUser();
+        Consumer<OutputStream> pdf = out -> reportService.generateExpenseReport(user, year, month, out);
         
-        return servePdf(pdfBytes, "Expenses_" + month + "_" + year + ".pdf");
+        return servePdf(user, "expense", year, month, ifNoneMatch, pdf, "Expenses_" + month + "_" + year + ".pdf");
     }
 
     @GetMapping("/income-report")
-    public ResponseEntity<byte[]> downloadIncomeReport(
+    public ResponseEntity<StreamingResponseBody> downloadIncomeReport(
             @RequestParam int year, 
-            @RequestParam String month) {
+            @RequestParam String month,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        User user = getAuthenticatedUser();
-        byte[] pdfBytes = reportService.generateIncomeReport(user, year, month);
+        CurrentUser user = getAuthenticatedUser();
+        Consumer<OutputStream> pdf = out -> reportService.generateIncomeReport(user, year, month, out);
         
-        return servePdf(pdfBytes, "Income_" + month + "_" + year + ".pdf");
+        return servePdf(user, "income", year, month, ifNoneMatch, pdf, "Income_" + month + "_" + year + ".pdf");
     }
 
     @GetMapping("/borrow-lend-report")
-    public ResponseEntity<byte[]> downloadBorrowLendReport(
+    public ResponseEntity<StreamingResponseBody> downloadBorrowLendReport(
             @RequestParam int year, 
-            @RequestParam String month) {
+            @RequestParam String month,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        User user = getAuthenticatedUser();
-        byte[] pdfBytes = reportService.generateBorrowLendReport(user, year, month);
+        CurrentUser user = getAuthenticatedUser();
+        Consumer<OutputStream> pdf = out -> reportService.generateBorrowLendReport(user, year, month, out);
         
-        return servePdf(pdfBytes, "Borrow_Lend_" + month + "_" + year + ".pdf");
+        return servePdf(user, "borrow-lend", year, month, ifNoneMatch, pdf, "Borrow_Lend_" + month + "_" + year + ".pdf");
     }
 }
\ No newline at end of file
@@ -1,9 +1,7 @@
 package com.trackmymoney.backend.controller;
 
+import com.trackmymoney.backend.dto.DashboardSummaryDTO;
 import com.trackmymoney.backend.dto.MonthlySummaryResponse;
-import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.exception.UserNotFoundException;
-import com.trackmymoney.backend.repository.UserRepository;
 import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.DashboardService;
 import com.trackmymoney.backend.service.SummaryService;
@@ -15,7 +13,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Month;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/summary")
@@ -27,21 +24,27 @@ public class SummaryController {
     @Autowired
     private SummaryService summaryService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     // --- Endpoint 1: Dashboard Stats (Home Page) ---
+    // Optional period: year, year + month, or month alone (current year)
     @GetMapping
-    public ResponseEntity<Map<String, Double>> getDashboardSummary(
+    public ResponseEntity<?> getDashboardSummary(
             @RequestParam(required = false) Integer year,
             @RequestParam(required = false) String month
     ) {
-        String email = SecurityUtils.getCurrentUserEmail();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        Integer monthInt = null;
+        if (month != null && !month.isBlank()) {
+            try {
+                monthInt = month.strip().chars().allMatch(Character::isDigit)
+                        ? Month.of(Integer.parseInt(month.strip())).getValue()
+                        : Month.valueOf(month.strip().toUpperCase()).getValue();
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body("Invalid month: " + month);
+            }
+        }
 
-        // Calls the robust service we fixed earlier
-        Map<String, Double> stats = dashboardService.getDashboardStats(user, year, month);
+        DashboardSummaryDTO stats = dashboardService.getDashboardStats(
+                SecurityUtils.getCurrentUserId(), year, monthInt
+        );
         return ResponseEntity.ok(stats);
     }
 
@@ -1,5 +1,7 @@
 package com.trackmymoney.backend.controller;
 
+import com.trackmymoney.backend.dto.BulkSettleRequest;
+import com.trackmymoney.backend.dto.BulkSettleResponse;
 import com.trackmymoney.backend.dto.CreateTransactionRequest;
 import com.trackmymoney.backend.dto.TransactionResponse;
 import com.trackmymoney.backend.entity.TransactionType;
@@ -43,4 +45,14 @@ public class TransactionController {
                 transactionService.settleTransaction(id)
         );
     }
+
+    // Settles the listed ids, or every open transaction with one person
+    @PutMapping("/settle")
+    public ResponseEntity<BulkSettleResponse> settleAll(
+            @Valid @RequestBody BulkSettleRequest request
+    ) {
+        return ResponseEntity.ok(
+                new BulkSettleResponse(transactionService.settleTransactions(request))
+        );
+    }
 }
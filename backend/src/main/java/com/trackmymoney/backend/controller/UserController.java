@@ -1,8 +1,10 @@
 package com.trackmymoney.backend.controller;
 
+import com.trackmymoney.backend.dto.AccountResetStatus;
 import com.trackmymoney.backend.dto.UpdateNameRequest;
 import com.trackmymoney.backend.dto.UpdatePasswordRequest;
 import com.trackmymoney.backend.dto.UserResponse;
+import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.UserService;
 import java.security.Principal;
 
@@ -62,9 +64,17 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    // Runs in the background; poll the returned job until it leaves QUEUED and RUNNING
     @DeleteMapping("/reset")
-    public ResponseEntity<Void> resetAccount(java.security.Principal principal) {
-        userService.resetAccount(principal.getName());
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<AccountResetStatus> resetAccount() {
+        AccountResetStatus status = userService.resetAccount(SecurityUtils.getCurrentUser());
+        return ResponseEntity.accepted()
+                .location(java.net.URI.create("/api/users/reset/" + status.jobId()))
+                .body(status);
+    }
+
+    @GetMapping("/reset/{jobId}")
+    public ResponseEntity<AccountResetStatus> getResetStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(userService.getResetStatus(SecurityUtils.getCurrentUserId(), jobId));
     }
 }
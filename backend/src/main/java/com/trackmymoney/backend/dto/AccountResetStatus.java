@@ -0,0 +1,15 @@
+package com.trackmymoney.backend.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record AccountResetStatus(
+        String jobId,
+        String state,
+        long deletedRows,
+        Map<String, Long> deletedByTable,
+        String currentTable,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {}
@@ -3,11 +3,13 @@ package com.trackmymoney.backend.dto;
 public class AuthResponse {
 
     private String token;
+    private String refreshToken;
     private String name;
     private String email;
 
-    public AuthResponse(String token, String name, String email) {
+    public AuthResponse(String token, String refreshToken, String name, String email) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.name = name;
         this.email = email;
     }
@@ -16,6 +18,10 @@ public class AuthResponse {
         return token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
     public String getName() {
         return name;
     }
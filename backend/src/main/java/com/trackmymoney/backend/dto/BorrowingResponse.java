@@ -11,6 +11,7 @@ public class BorrowingResponse {
     private LocalDate borrowDate;
     private LocalDate dueDate;
     private boolean settled;
+    private Long version;
 
     public BorrowingResponse(
             Long id,
@@ -18,7 +19,8 @@ public class BorrowingResponse {
             BigDecimal amount,
             LocalDate borrowDate,
             LocalDate dueDate,
-            boolean settled
+            boolean settled,
+            Long version
     ) {
         this.id = id;
         this.name = name;
@@ -26,6 +28,7 @@ public class BorrowingResponse {
         this.borrowDate = borrowDate;
         this.dueDate = dueDate;
         this.settled = settled;
+        this.version = version;
     }
 
     public Long getId() {
@@ -51,4 +54,8 @@ public class BorrowingResponse {
     public boolean isSettled() {
         return settled;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,25 @@
+package com.trackmymoney.backend.dto;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Either a list of ids or a counterparty name; with a counterparty every
+ * open item for that person is settled.
+ */
+@Data
+public class BulkSettleRequest {
+    @Size(max = 1000, message = "At most 1000 ids per request")
+    private List<Long> ids;
+
+    private String counterparty;
+
+    @AssertTrue(message = "Provide either ids or counterparty")
+    public boolean isSingleSelector() {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        boolean hasCounterparty = counterparty != null && !counterparty.isBlank();
+        return hasIds != hasCounterparty;
+    }
+}
@@ -0,0 +1,3 @@
+package com.trackmymoney.backend.dto;
+
+public record BulkSettleResponse(int settled) {}
@@ -0,0 +1,30 @@
+package com.trackmymoney.backend.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. next is null on the last page.
+ */
+public record CursorPage<T>(List<T> items, String next) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Builds a page from a query that fetched limit + 1 rows; the extra row
+     * only tells us whether another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, PageCursor> position) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPage<>(items, position.apply(items.get(limit - 1)).encode());
+    }
+}
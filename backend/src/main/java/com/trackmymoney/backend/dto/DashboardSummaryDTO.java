@@ -1,38 +1,45 @@
 package com.trackmymoney.backend.dto;
 
+import java.math.BigDecimal;
+
 public class DashboardSummaryDTO {
-    private Double totalIncome;
-    private Double totalExpense;
-    private Double totalBorrowed;
-    private Double totalLent;
-    private Double overdueBorrowed;
-    private Double overdueLent;
-
-    public DashboardSummaryDTO(Double totalIncome, Double totalExpense, Double totalBorrowed, Double totalLent,
-                               Double overdueBorrowed, Double overdueLent) {
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal balance;
+    private BigDecimal totalBorrowed;
+    private BigDecimal totalLent;
+    private BigDecimal overdueBorrowed;
+    private BigDecimal overdueLent;
+
+    public DashboardSummaryDTO(BigDecimal totalIncome, BigDecimal totalExpense, BigDecimal totalBorrowed,
+                               BigDecimal totalLent, BigDecimal overdueBorrowed, BigDecimal overdueLent) {
         this.totalIncome = totalIncome;
         this.totalExpense = totalExpense;
+        this.balance = totalIncome.subtract(totalExpense);
         this.totalBorrowed = totalBorrowed;
         this.totalLent = totalLent;
         this.overdueBorrowed = overdueBorrowed;
         this.overdueLent = overdueLent;
     }
 
-    public Double getTotalIncome() { return totalIncome; }
-    public void setTotalIncome(Double totalIncome) { this.totalIncome = totalIncome; }
+    public BigDecimal getTotalIncome() { return totalIncome; }
+    public void setTotalIncome(BigDecimal totalIncome) { this.totalIncome = totalIncome; }
+
+    public BigDecimal getTotalExpense() { return totalExpense; }
+    public void setTotalExpense(BigDecimal totalExpense) { this.totalExpense = totalExpense; }
 
-    public Double getTotalExpense() { return totalExpense; }
-    public void setTotalExpense(Double totalExpense) { this.totalExpense = totalExpense; }
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
 
-    public Double getTotalBorrowed() { return totalBorrowed; }
-    public void setTotalBorrowed(Double totalBorrowed) { this.totalBorrowed = totalBorrowed; }
+    public BigDecimal getTotalBorrowed() { return totalBorrowed; }
+    public void setTotalBorrowed(BigDecimal totalBorrowed) { this.totalBorrowed = totalBorrowed; }
 
-    public Double getTotalLent() { return totalLent; }
-    public void setTotalLent(Double totalLent) { this.totalLent = totalLent; }
+    public BigDecimal getTotalLent() { return totalLent; }
+    public void setTotalLent(BigDecimal totalLent) { this.totalLent = totalLent; }
 
-    public Double getOverdueBorrowed() { return overdueBorrowed; }
-    public void setOverdueBorrowed(Double overdueBorrowed) { this.overdueBorrowed = overdueBorrowed; }
+    public BigDecimal getOverdueBorrowed() { return overdueBorrowed; }
+    public void setOverdueBorrowed(BigDecimal overdueBorrowed) { this.overdueBorrowed = overdueBorrowed; }
 
-    public Double getOverdueLent() { return overdueLent; }
-    public void setOverdueLent(Double overdueLent) { this.overdueLent = overdueLent; }
+    public BigDecimal getOverdueLent() { return overdueLent; }
+    public void setOverdueLent(BigDecimal overdueLent) { this.overdueLent = overdueLent; }
 }
@@ -10,19 +10,22 @@ public class ExpenseResponse {
     private String category;
     private String description;
     private LocalDate expenseDate;
+    private Long version;
 
     public ExpenseResponse(
             Long id,
             BigDecimal amount,
             String category,
             String description,
-            LocalDate expenseDate
+            LocalDate expenseDate,
+            Long version
     ) {
         this.id = id;
         this.amount = amount;
         this.category = category;
         this.description = description;
         this.expenseDate = expenseDate;
+        this.version = version;
     }
 
     public Long getId() { return id; }
@@ -30,4 +33,5 @@ public class ExpenseResponse {
     public String getCategory() { return category; }
     public String getDescription() { return description; }
     public LocalDate getExpenseDate() { return expenseDate; }
+    public Long getVersion() { return version; }
 }
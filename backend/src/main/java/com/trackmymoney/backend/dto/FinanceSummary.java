@@ -0,0 +1,11 @@
+package com.trackmymoney.backend.dto;
+
+import java.math.BigDecimal;
+
+public record FinanceSummary(
+        BigDecimal totalIncome,
+        BigDecimal totalExpense,
+        BigDecimal borrowedDue,
+        BigDecimal lentDue
+) {
+}
@@ -0,0 +1,20 @@
+package com.trackmymoney.backend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Row numbers count data rows from 1 (the CSV
+ * header is not a row). Only the first errors are listed; failed has the
+ * full count. stoppedAtRow is the first row that was not read when the
+ * import stopped early (row limit, unreadable input, size limit), null when
+ * the whole input was read; a client can resume from there.
+ */
+public record ImportResult(
+        long imported,
+        long failed,
+        Long stoppedAtRow,
+        List<RowError> errors,
+        boolean errorsTruncated
+) {
+    public record RowError(long row, String message) {}
+}
@@ -11,6 +11,7 @@ public class IncomeResponse {
     private String category;
     private String description;
     private LocalDate incomeDate;
+    private Long version;
 
     public IncomeResponse(
             Long id,
@@ -18,7 +19,8 @@ public class IncomeResponse {
             String source,
             String category,
             String description,
-            LocalDate incomeDate
+            LocalDate incomeDate,
+            Long version
     ) {
         this.id = id;
         this.amount = amount;
@@ -26,6 +28,7 @@ public class IncomeResponse {
         this.category = category;
         this.description = description;
         this.incomeDate = incomeDate;
+        this.version = version;
     }
 
     public Long getId() { return id; }
@@ -34,4 +37,5 @@ public class IncomeResponse {
     public String getCategory() { return category; }
     public String getDescription() { return description; }
     public LocalDate getIncomeDate() { return incomeDate; }
+    public Long getVersion() { return version; }
 }
@@ -1,5 +1,6 @@
 package com.trackmymoney.backend.dto;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public record LendingResponse(
@@ -8,5 +9,12 @@ public record LendingResponse(
         Double amount,
         LocalDate lendDate,
         LocalDate dueDate,
-        boolean settled
-) {}
+        boolean settled,
+        Long version
+) {
+    // Used by the JPQL constructor expressions in LendingRepository
+    public LendingResponse(Long id, String name, BigDecimal amount,
+                           LocalDate lendDate, LocalDate dueDate, boolean settled, Long version) {
+        this(id, name, amount.doubleValue(), lendDate, dueDate, settled, version);
+    }
+}
@@ -0,0 +1,41 @@
+package com.trackmymoney.backend.dto;
+
+import com.trackmymoney.backend.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position of the last row on a page, ordered by (date DESC, id DESC).
+ * Sent to clients as an opaque base64url string; date may be null for
+ * lendings recorded without a lend date.
+ */
+public record PageCursor(LocalDate date, Long id) {
+
+    private static final String NO_DATE = "-";
+
+    public String encode() {
+        String raw = (date == null ? NO_DATE : date.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns null for a missing cursor (first page). */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            String date = raw.substring(0, sep);
+
+            return new PageCursor(
+                    NO_DATE.equals(date) ? null : LocalDate.parse(date),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.trackmymoney.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * A report to render in the background. Report types (finance-report,
+ * expense-report, income-report, borrow-lend-report) take year and month;
+ * export types (expenses-csv, expenses-pdf, incomes-csv, incomes-pdf) take
+ * an optional date range that defaults to the last year.
+ */
+@Data
+public class ReportJobRequest {
+    @NotBlank(message = "Report type is required")
+    private String type;
+
+    private Integer year;
+    private String month;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,17 @@
+package com.trackmymoney.backend.dto;
+
+import java.time.Instant;
+
+public record ReportJobStatus(
+        String jobId,
+        String type,
+        String state,
+        long bytesWritten,
+        String filename,
+        String downloadUrl,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        Instant expiresAt,
+        String error
+) {}
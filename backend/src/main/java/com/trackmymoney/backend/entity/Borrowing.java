@@ -31,6 +31,11 @@ public class Borrowing {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Optimistic lock; sent to clients as the ETag
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public Long getId() { return id; }
     public String getName() { return name; }
     public BigDecimal getAmount() { return amount; }
@@ -38,6 +43,7 @@ public class Borrowing {
     public LocalDate getDueDate() { return dueDate; }
     public boolean isSettled() { return settled; }
     public User getUser() { return user; }
+    public Long getVersion() { return version; }
 
     public void setId(Long id) { this.id = id; }
     public void setName(String name) { this.name = name; }
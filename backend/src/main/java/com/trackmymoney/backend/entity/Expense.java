@@ -31,6 +31,11 @@ public class Expense {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Optimistic lock; sent to clients as the ETag
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public Expense() {
         this.createdAt = LocalDateTime.now();
     }
@@ -42,6 +47,7 @@ public class Expense {
     public LocalDate getExpenseDate() { return expenseDate; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public User getUser() { return user; }
+    public Long getVersion() { return version; }
 
     public void setId(Long id) { this.id = id; }
     public void setAmount(BigDecimal amount) { this.amount = amount; }
@@ -33,6 +33,11 @@ public class Income {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Optimistic lock; sent to clients as the ETag
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public Income() {
         this.createdAt = LocalDateTime.now();
     }
@@ -45,6 +50,7 @@ public class Income {
     public LocalDate getIncomeDate() { return incomeDate; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public User getUser() { return user; }
+    public Long getVersion() { return version; }
 
     public void setId(Long id) { this.id = id; }
     public void setAmount(BigDecimal amount) { this.amount = amount; }
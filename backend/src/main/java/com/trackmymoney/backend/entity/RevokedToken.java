@@ -0,0 +1,34 @@
+package com.trackmymoney.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An access token (by its jti) revoked before its natural expiry.
+ * Rows are only needed until expires_at, after which the token is dead anyway.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String tokenId, Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTokenId() { return tokenId; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public void setTokenId(String tokenId) { this.tokenId = tokenId; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
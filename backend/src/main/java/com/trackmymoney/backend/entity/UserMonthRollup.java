@@ -0,0 +1,94 @@
+package com.trackmymoney.backend.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Running per-user totals for one calendar month and category, kept in step
+ * with the raw rows by MonthlyRollupRepository. Borrowings and lendings have
+ * no category and land in the '' bucket of their borrow/lend month.
+ * Written only through SQL upserts; mapped here so the schema is managed
+ * like every other table.
+ */
+@Entity
+@Table(name = "user_month_rollup")
+public class UserMonthRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "income_total", nullable = false)
+    private BigDecimal incomeTotal;
+
+    @Column(name = "income_count", nullable = false)
+    private long incomeCount;
+
+    @Column(name = "expense_total", nullable = false)
+    private BigDecimal expenseTotal;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    @Column(name = "borrowed_total", nullable = false)
+    private BigDecimal borrowedTotal;
+
+    @Column(name = "borrowed_count", nullable = false)
+    private long borrowedCount;
+
+    @Column(name = "lent_total", nullable = false)
+    private BigDecimal lentTotal;
+
+    @Column(name = "lent_count", nullable = false)
+    private long lentCount;
+
+    public UserMonthRollup() {
+    }
+
+    public Key getId() { return id; }
+    public BigDecimal getIncomeTotal() { return incomeTotal; }
+    public long getIncomeCount() { return incomeCount; }
+    public BigDecimal getExpenseTotal() { return expenseTotal; }
+    public long getExpenseCount() { return expenseCount; }
+    public BigDecimal getBorrowedTotal() { return borrowedTotal; }
+    public long getBorrowedCount() { return borrowedCount; }
+    public BigDecimal getLentTotal() { return lentTotal; }
+    public long getLentCount() { return lentCount; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        // First day of the month
+        @Column(name = "month", nullable = false)
+        private LocalDate month;
+
+        @Column(name = "category", nullable = false)
+        private String category;
+
+        public Key() {
+        }
+
+        public Long getUserId() { return userId; }
+        public LocalDate getMonth() { return month; }
+        public String getCategory() { return category; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(userId, other.userId)
+                    && Objects.equals(month, other.month)
+                    && Objects.equals(category, other.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, month, category);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.trackmymoney.backend.exception;
+
+public class InvalidReportException extends RuntimeException {
+
+    public InvalidReportException(String message) {
+        super(message);
+    }
+}
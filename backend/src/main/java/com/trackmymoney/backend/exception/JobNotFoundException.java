@@ -0,0 +1,8 @@
+package com.trackmymoney.backend.exception;
+
+public class JobNotFoundException extends RuntimeException {
+
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+}
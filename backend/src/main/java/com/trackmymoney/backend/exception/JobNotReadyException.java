@@ -0,0 +1,8 @@
+package com.trackmymoney.backend.exception;
+
+public class JobNotReadyException extends RuntimeException {
+
+    public JobNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.trackmymoney.backend.exception;
+
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.trackmymoney.backend.exception;
+
+/**
+ * An If-Match version no longer matches the stored record.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    private final String resource;
+
+    public PreconditionFailedException(String resource, String message) {
+        super(message);
+        this.resource = resource;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+}
@@ -1,13 +1,17 @@
 package com.trackmymoney.backend.repository;
 
+import com.trackmymoney.backend.dto.BorrowingResponse;
 import com.trackmymoney.backend.entity.Borrowing;
 import com.trackmymoney.backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,21 +19,53 @@ public interface BorrowingRepository extends JpaRepository<Borrowing, Long> {
 
     List<Borrowing> findByUser(User user);
 
-    List<Borrowing> findByUserAndSettledFalse(User user);
+    // Read-only projections: rows go straight into the response DTO, with
+    // no managed entity or dirty-checking snapshot
+    String RESPONSE = "SELECT new com.trackmymoney.backend.dto.BorrowingResponse("
+            + "b.id, b.name, b.amount, b.borrowDate, b.dueDate, b.settled, b.version)"
+            + " FROM Borrowing b";
 
-    List<Borrowing> findByUserAndDueDateBetween(User user, LocalDate start, LocalDate end);
+    @Query(RESPONSE + " WHERE b.user.id = :userId")
+    List<BorrowingResponse> findResponses(@Param("userId") Long userId);
 
-    Optional<Borrowing> findByIdAndUser(Long id, User user);
+    @Query(RESPONSE + " WHERE b.user.id = :userId AND b.dueDate BETWEEN :start AND :end")
+    List<BorrowingResponse> findResponsesBetween(@Param("userId") Long userId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Keyset pages ordered by (borrowDate, id) descending
+    @Query(RESPONSE + " WHERE b.user.id = :userId ORDER BY b.borrowDate DESC, b.id DESC")
+    List<BorrowingResponse> findPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(RESPONSE + " WHERE b.user.id = :userId"
+            + " AND (b.borrowDate < :date OR (b.borrowDate = :date AND b.id < :id))"
+            + " ORDER BY b.borrowDate DESC, b.id DESC")
+    List<BorrowingResponse> findPageAfter(@Param("userId") Long userId, @Param("date") LocalDate date,
+            @Param("id") Long id, Pageable pageable);
 
-    @Query("SELECT SUM(b.amount) FROM Borrowing b WHERE b.user.id = :userId AND b.settled = false")
-    BigDecimal sumOfUnsettledBorrowingsByUserId(@Param("userId") Long userId);
+    // Settlement as single guarded UPDATEs; callers check the row count.
+    // Each bumps the version so an If-Match PUT from before the settle fails
+    @Modifying
+    @Transactional
+    @Query("UPDATE Borrowing b SET b.settled = true, b.version = b.version + 1"
+            + " WHERE b.id = :id AND b.user.id = :userId")
+    int settle(@Param("id") Long id, @Param("userId") Long userId);
 
-    @Query("SELECT SUM(b.amount) FROM Borrowing b WHERE b.user.id = :userId")
-    BigDecimal sumByUserId(@Param("userId") Long userId);
+    @Modifying
+    @Transactional
+    @Query("UPDATE Borrowing b SET b.settled = true, b.version = b.version + 1"
+            + " WHERE b.user.id = :userId AND b.settled = false AND b.id IN :ids")
+    int settleAll(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
 
-    void deleteByUser(User user);
+    @Modifying
+    @Transactional
+    @Query("UPDATE Borrowing b SET b.settled = true, b.version = b.version + 1"
+            + " WHERE b.user.id = :userId AND b.settled = false AND b.name = :counterparty")
+    int settleAllFor(@Param("userId") Long userId, @Param("counterparty") String counterparty);
+
+    List<Borrowing> findByUserAndDueDateBetween(User user, LocalDate start, LocalDate end);
+
+    Optional<Borrowing> findByIdAndUser(Long id, User user);
 
-    // FIX: This method signature now matches what your DashboardServiceImpl is calling
-    @Query("SELECT SUM(b.amount) FROM Borrowing b WHERE b.user.id = :userId AND b.settled = false AND b.dueDate <=:today")
-    BigDecimal sumOverdueByUserId(@Param("userId") Long userId, @Param("today") LocalDate today);
+    // Tells a stale If-Match apart from a missing row once VersionedUpdateRepository finds nothing
+    boolean existsByIdAndUserId(Long id, Long userId);
 }
\ No newline at end of file
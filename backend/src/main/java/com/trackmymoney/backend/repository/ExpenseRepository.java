@@ -1,12 +1,13 @@
 package com.trackmymoney.backend.repository;
 
+import com.trackmymoney.backend.dto.ExpenseResponse;
 import com.trackmymoney.backend.entity.Expense;
 import com.trackmymoney.backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -15,13 +16,34 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     List<Expense> findByUser(User user);
 
+    // Read-only projections: rows go straight into the response DTO, with
+    // no managed entity or dirty-checking snapshot
+    String RESPONSE = "SELECT new com.trackmymoney.backend.dto.ExpenseResponse("
+            + "e.id, e.amount, e.category, e.description, e.expenseDate, e.version)"
+            + " FROM Expense e";
+
+    @Query(RESPONSE + " WHERE e.user.id = :userId")
+    List<ExpenseResponse> findResponses(@Param("userId") Long userId);
+
+    @Query(RESPONSE + " WHERE e.user.id = :userId AND e.expenseDate BETWEEN :start AND :end")
+    List<ExpenseResponse> findResponsesBetween(@Param("userId") Long userId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Keyset pages ordered by (expenseDate, id) descending
+    @Query(RESPONSE + " WHERE e.user.id = :userId ORDER BY e.expenseDate DESC, e.id DESC")
+    List<ExpenseResponse> findPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(RESPONSE + " WHERE e.user.id = :userId"
+            + " AND (e.expenseDate < :date OR (e.expenseDate = :date AND e.id < :id))"
+            + " ORDER BY e.expenseDate DESC, e.id DESC")
+    List<ExpenseResponse> findPageAfter(@Param("userId") Long userId, @Param("date") LocalDate date,
+            @Param("id") Long id, Pageable pageable);
+
     // This is the one we need for reports - Good, you already had it!
     List<Expense> findByUserAndExpenseDateBetween(User user, LocalDate startDate, LocalDate endDate);
 
     Optional<Expense> findByIdAndUser(Long id, User user);
-    
-    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.user.id = :userId")
-    BigDecimal sumByUserId(@Param("userId") Long userId);
 
-    void deleteByUser(User user);
+    // Tells a stale If-Match apart from a missing row once VersionedUpdateRepository finds nothing
+    boolean existsByIdAndUserId(Long id, Long userId);
 }
\ No newline at end of file
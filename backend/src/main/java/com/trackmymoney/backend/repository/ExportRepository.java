@@ -0,0 +1,50 @@
+package com.trackmymoney.backend.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+/**
+ * Row-by-row reads for exports. With a fetch size inside a transaction the
+ * PostgreSQL driver reads through a server-side cursor, EXPORT_FETCH_SIZE
+ * rows per round trip, so neither the driver nor Hibernate ever holds the
+ * whole range. Rows come back in (date, id) order straight off the
+ * (user_id, date, id) indexes. Callers must be in a transaction, or the
+ * driver buffers the full result.
+ */
+@Repository
+public class ExportRepository {
+
+    private static final String EXPENSES = "SELECT id, expense_date, category, description, amount"
+            + " FROM expenses WHERE user_id = ? AND expense_date BETWEEN ? AND ?"
+            + " ORDER BY expense_date, id";
+
+    private static final String INCOMES = "SELECT id, income_date, source, description, amount"
+            + " FROM incomes WHERE user_id = ? AND income_date BETWEEN ? AND ?"
+            + " ORDER BY income_date, id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportRepository(DataSource dataSource, @Value("${EXPORT_FETCH_SIZE:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public int fetchSize() {
+        return jdbcTemplate.getFetchSize();
+    }
+
+    /** Columns: id, expense_date, category, description, amount. */
+    public void streamExpenses(Long userId, LocalDate start, LocalDate end, RowCallbackHandler handler) {
+        jdbcTemplate.query(EXPENSES, handler, userId, start, end);
+    }
+
+    /** Columns: id, income_date, source, description, amount. */
+    public void streamIncomes(Long userId, LocalDate start, LocalDate end, RowCallbackHandler handler) {
+        jdbcTemplate.query(INCOMES, handler, userId, start, end);
+    }
+}
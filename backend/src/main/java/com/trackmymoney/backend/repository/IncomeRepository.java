@@ -1,12 +1,13 @@
 package com.trackmymoney.backend.repository;
 
+import com.trackmymoney.backend.dto.IncomeResponse;
 import com.trackmymoney.backend.entity.Income;
 import com.trackmymoney.backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -15,13 +16,34 @@ public interface IncomeRepository extends JpaRepository<Income, Long> {
 
     List<Income> findByUser(User user);
 
+    // Read-only projections: rows go straight into the response DTO, with
+    // no managed entity or dirty-checking snapshot
+    String RESPONSE = "SELECT new com.trackmymoney.backend.dto.IncomeResponse("
+            + "i.id, i.amount, i.source, i.category, i.description, i.incomeDate, i.version)"
+            + " FROM Income i";
+
+    @Query(RESPONSE + " WHERE i.user.id = :userId")
+    List<IncomeResponse> findResponses(@Param("userId") Long userId);
+
+    @Query(RESPONSE + " WHERE i.user.id = :userId AND i.incomeDate BETWEEN :start AND :end")
+    List<IncomeResponse> findResponsesBetween(@Param("userId") Long userId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Keyset pages ordered by (incomeDate, id) descending
+    @Query(RESPONSE + " WHERE i.user.id = :userId ORDER BY i.incomeDate DESC, i.id DESC")
+    List<IncomeResponse> findPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(RESPONSE + " WHERE i.user.id = :userId"
+            + " AND (i.incomeDate < :date OR (i.incomeDate = :date AND i.id < :id))"
+            + " ORDER BY i.incomeDate DESC, i.id DESC")
+    List<IncomeResponse> findPageAfter(@Param("userId") Long userId, @Param("date") LocalDate date,
+            @Param("id") Long id, Pageable pageable);
+
     // This is the one we need for reports - Good, you already had it!
     List<Income> findByUserAndIncomeDateBetween(User user, LocalDate start, LocalDate end);
 
     Optional<Income> findByIdAndUser(Long id, User user);
-    
-    @Query("SELECT SUM(i.amount) FROM Income i WHERE i.user.id = :userId")
-    BigDecimal sumByUserId(@Param("userId") Long userId);
 
-    void deleteByUser(User user);
+    // Tells a stale If-Match apart from a missing row once VersionedUpdateRepository finds nothing
+    boolean existsByIdAndUserId(Long id, Long userId);
 }
\ No newline at end of file
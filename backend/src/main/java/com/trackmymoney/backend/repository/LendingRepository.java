@@ -1,13 +1,17 @@
 package com.trackmymoney.backend.repository;
 
+import com.trackmymoney.backend.dto.LendingResponse;
 import com.trackmymoney.backend.entity.Lending;
 import com.trackmymoney.backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,19 +19,58 @@ public interface LendingRepository extends JpaRepository<Lending, Long> {
 
     List<Lending> findByUser(User user);
 
+    // Read-only projections: rows go straight into the response DTO, with
+    // no managed entity or dirty-checking snapshot
+    String RESPONSE = "SELECT new com.trackmymoney.backend.dto.LendingResponse("
+            + "l.id, l.name, l.amount, l.lendDate, l.dueDate, l.settled, l.version)"
+            + " FROM Lending l";
+
+    @Query(RESPONSE + " WHERE l.user.id = :userId")
+    List<LendingResponse> findResponses(@Param("userId") Long userId);
+
+    @Query(RESPONSE + " WHERE l.user.id = :userId AND l.dueDate BETWEEN :start AND :end")
+    List<LendingResponse> findResponsesBetween(@Param("userId") Long userId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Keyset pages ordered by (lendDate, id) descending; rows without a
+    // lend date come last, ordered by id
+    @Query(RESPONSE + " WHERE l.user.id = :userId ORDER BY l.lendDate DESC NULLS LAST, l.id DESC")
+    List<LendingResponse> findPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(RESPONSE + " WHERE l.user.id = :userId"
+            + " AND (l.lendDate < :date OR (l.lendDate = :date AND l.id < :id) OR l.lendDate IS NULL)"
+            + " ORDER BY l.lendDate DESC NULLS LAST, l.id DESC")
+    List<LendingResponse> findPageAfter(@Param("userId") Long userId, @Param("date") LocalDate date,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query(RESPONSE + " WHERE l.user.id = :userId AND l.lendDate IS NULL AND l.id < :id"
+            + " ORDER BY l.id DESC")
+    List<LendingResponse> findUndatedPageAfter(@Param("userId") Long userId, @Param("id") Long id, Pageable pageable);
+
     List<Lending> findByUserAndDueDateBetween(User user, LocalDate start, LocalDate end);
 
     Optional<Lending> findByIdAndUser(Long id, User user);
 
-    @Query("SELECT SUM(l.amount) FROM Lending l WHERE l.user.id = :userId AND l.settled = false")
-    BigDecimal sumOfUnsettledLendingsByUserId(@Param("userId") Long userId);
-    
-    @Query("SELECT SUM(l.amount) FROM Lending l WHERE l.user.id = :userId")
-    BigDecimal sumByUserId(@Param("userId") Long userId);
-
-    void deleteByUser(User user);
-    
-    // FIX: This method signature now matches what your DashboardServiceImpl is calling
-    @Query("SELECT SUM(l.amount) FROM Lending l WHERE l.user.id = :userId AND l.settled = false AND l.dueDate <=:today")
-    BigDecimal sumOverdueByUserId(@Param("userId") Long userId, @Param("today") LocalDate today);
+    // Settlement as single guarded UPDATEs; callers check the row count.
+    // Each bumps the version so an If-Match PUT from before the settle fails
+    @Modifying
+    @Transactional
+    @Query("UPDATE Lending l SET l.settled = true, l.version = l.version + 1"
+            + " WHERE l.id = :id AND l.user.id = :userId")
+    int settle(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Lending l SET l.settled = true, l.version = l.version + 1"
+            + " WHERE l.user.id = :userId AND l.settled = false AND l.id IN :ids")
+    int settleAll(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Lending l SET l.settled = true, l.version = l.version + 1"
+            + " WHERE l.user.id = :userId AND l.settled = false AND l.name = :counterparty")
+    int settleAllFor(@Param("userId") Long userId, @Param("counterparty") String counterparty);
+
+    // Tells a stale If-Match apart from a missing row once VersionedUpdateRepository finds nothing
+    boolean existsByIdAndUserId(Long id, Long userId);
 }
\ No newline at end of file
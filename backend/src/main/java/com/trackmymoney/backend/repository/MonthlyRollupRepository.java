@@ -0,0 +1,192 @@
+package com.trackmymoney.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains user_month_rollup (see UserMonthRollup). Writers call record/add/
+ * remove/replace inside the same transaction as the raw row change, so the
+ * rollup commits or rolls back with it.
+ *
+ * Every delta takes a shared advisory lock on the user and rebuild takes the
+ * exclusive one: a rebuild waits for in-flight writers to commit, and a
+ * writer that commits after a rebuild's snapshot still applies its delta on
+ * top, so the two never double-count or lose a row.
+ */
+@Repository
+public class MonthlyRollupRepository {
+
+    public enum Measure {
+        INCOME("income"), EXPENSE("expense"), BORROWED("borrowed"), LENT("lent");
+
+        final String column;
+
+        Measure(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final String COLUMNS = "user_id, month, category,"
+            + " income_total, income_count, expense_total, expense_count,"
+            + " borrowed_total, borrowed_count, lent_total, lent_count";
+
+    private static final String UPSERT = "WITH guard AS ("
+            + "SELECT pg_advisory_xact_lock_shared(hashtext('user_month_rollup'), ?::int))"
+            + " INSERT INTO user_month_rollup (" + COLUMNS + ")"
+            + " SELECT ?::bigint, ?::date, ?::varchar,"
+            + " ?::numeric, ?::bigint, ?::numeric, ?::bigint, ?::numeric, ?::bigint, ?::numeric, ?::bigint"
+            + " FROM guard"
+            + " ON CONFLICT (user_id, month, category) DO UPDATE SET"
+            + " income_total = user_month_rollup.income_total + EXCLUDED.income_total,"
+            + " income_count = user_month_rollup.income_count + EXCLUDED.income_count,"
+            + " expense_total = user_month_rollup.expense_total + EXCLUDED.expense_total,"
+            + " expense_count = user_month_rollup.expense_count + EXCLUDED.expense_count,"
+            + " borrowed_total = user_month_rollup.borrowed_total + EXCLUDED.borrowed_total,"
+            + " borrowed_count = user_month_rollup.borrowed_count + EXCLUDED.borrowed_count,"
+            + " lent_total = user_month_rollup.lent_total + EXCLUDED.lent_total,"
+            + " lent_count = user_month_rollup.lent_count + EXCLUDED.lent_count";
+
+    private static final String LOCK_EXCLUSIVE =
+            "SELECT pg_advisory_xact_lock(hashtext('user_month_rollup'), ?::int)";
+
+    private static final String REBUILD_USER =
+            "INSERT INTO user_month_rollup (" + COLUMNS + ") " + rawBuckets(true);
+
+    private static final String REBUILD_ALL =
+            "INSERT INTO user_month_rollup (" + COLUMNS + ") " + rawBuckets(false);
+
+    // Users whose stored buckets differ from a fresh aggregate; all-zero buckets equal missing ones
+    private static final String DRIFTED_USERS = "SELECT DISTINCT COALESCE(x.user_id, r.user_id)"
+            + " FROM (" + rawBuckets(false) + ") x"
+            + " FULL JOIN user_month_rollup r"
+            + " ON r.user_id = x.user_id AND r.month = x.month AND r.category = x.category"
+            + " WHERE " + String.join(" OR ", differs("total"), differs("count"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MonthlyRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void add(Long userId, Measure measure, LocalDate date, String category, BigDecimal amount) {
+        record(userId, measure, date, category, amount, 1);
+    }
+
+    public void remove(Long userId, Measure measure, LocalDate date, String category, BigDecimal amount) {
+        record(userId, measure, date, category, amount.negate(), -1);
+    }
+
+    /** Moves a row's contribution; a same-bucket edit is a single amount delta. */
+    public void replace(Long userId, Measure measure,
+                        LocalDate oldDate, String oldCategory, BigDecimal oldAmount,
+                        LocalDate newDate, String newCategory, BigDecimal newAmount) {
+
+        if (sameBucket(oldDate, oldCategory, newDate, newCategory)) {
+            BigDecimal delta = newAmount.subtract(oldAmount);
+            if (delta.signum() != 0) {
+                record(userId, measure, newDate, newCategory, delta, 0);
+            }
+            return;
+        }
+        remove(userId, measure, oldDate, oldCategory, oldAmount);
+        add(userId, measure, newDate, newCategory, newAmount);
+    }
+
+    /** Applies a signed delta to one bucket. Rows without a date are not rolled up. */
+    public void record(Long userId, Measure measure, LocalDate date, String category,
+                       BigDecimal amount, long count) {
+        if (date == null) return;
+
+        Object[] totals = new Object[8];
+        for (Measure m : Measure.values()) {
+            boolean hit = m == measure;
+            totals[m.ordinal() * 2] = hit ? amount : BigDecimal.ZERO;
+            totals[m.ordinal() * 2 + 1] = hit ? count : 0L;
+        }
+
+        jdbcTemplate.update(UPSERT,
+                lockKey(userId), userId, date.withDayOfMonth(1), bucket(category),
+                totals[0], totals[1], totals[2], totals[3],
+                totals[4], totals[5], totals[6], totals[7]);
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM user_month_rollup)", Boolean.class));
+    }
+
+    public List<Long> findDriftedUsers() {
+        return jdbcTemplate.queryForList(DRIFTED_USERS, Long.class);
+    }
+
+    /** Replaces one user's buckets with a fresh aggregate of their raw rows. */
+    @Transactional
+    public void rebuild(Long userId) {
+        jdbcTemplate.query(LOCK_EXCLUSIVE, (RowCallbackHandler) rs -> { }, lockKey(userId));
+        jdbcTemplate.update("DELETE FROM user_month_rollup WHERE user_id = ?", userId);
+        jdbcTemplate.update(REBUILD_USER, userId, userId, userId, userId);
+    }
+
+    /** Backfill for an empty table; only safe before requests are served. */
+    @Transactional
+    public int rebuildAll() {
+        return jdbcTemplate.update(REBUILD_ALL);
+    }
+
+    private static String bucket(String category) {
+        return category == null ? "" : category;
+    }
+
+    private static boolean sameBucket(LocalDate oldDate, String oldCategory,
+                                      LocalDate newDate, String newCategory) {
+        return oldDate != null && newDate != null
+                && oldDate.withDayOfMonth(1).equals(newDate.withDayOfMonth(1))
+                && bucket(oldCategory).equals(bucket(newCategory));
+    }
+
+    private static int lockKey(Long userId) {
+        return Objects.hashCode(userId);
+    }
+
+    private static String rawBuckets(boolean oneUser) {
+        String user = oneUser ? " AND user_id = ?" : "";
+        return "SELECT user_id, month, category,"
+                + " SUM(income_total) AS income_total, SUM(income_count) AS income_count,"
+                + " SUM(expense_total) AS expense_total, SUM(expense_count) AS expense_count,"
+                + " SUM(borrowed_total) AS borrowed_total, SUM(borrowed_count) AS borrowed_count,"
+                + " SUM(lent_total) AS lent_total, SUM(lent_count) AS lent_count"
+                + " FROM ("
+                + "SELECT user_id, CAST(date_trunc('month', income_date) AS date) AS month,"
+                + " COALESCE(category, '') AS category,"
+                + " amount AS income_total, 1 AS income_count, 0 AS expense_total, 0 AS expense_count,"
+                + " 0 AS borrowed_total, 0 AS borrowed_count, 0 AS lent_total, 0 AS lent_count"
+                + " FROM incomes WHERE income_date IS NOT NULL" + user
+                + " UNION ALL SELECT user_id, CAST(date_trunc('month', expense_date) AS date),"
+                + " COALESCE(category, ''), 0, 0, amount, 1, 0, 0, 0, 0"
+                + " FROM expenses WHERE expense_date IS NOT NULL" + user
+                + " UNION ALL SELECT user_id, CAST(date_trunc('month', borrow_date) AS date),"
+                + " '', 0, 0, 0, 0, amount, 1, 0, 0"
+                + " FROM borrowings WHERE borrow_date IS NOT NULL" + user
+                + " UNION ALL SELECT user_id, CAST(date_trunc('month', lend_date) AS date),"
+                + " '', 0, 0, 0, 0, 0, 0, amount, 1"
+                + " FROM lendings WHERE lend_date IS NOT NULL" + user
+                + ") raw GROUP BY user_id, month, category";
+    }
+
+    private static String differs(String suffix) {
+        StringBuilder sql = new StringBuilder();
+        for (Measure m : Measure.values()) {
+            if (!sql.isEmpty()) sql.append(" OR ");
+            String column = m.column + "_" + suffix;
+            sql.append("COALESCE(x.").append(column).append(", 0) <> COALESCE(r.").append(column).append(", 0)");
+        }
+        return sql.toString();
+    }
+}
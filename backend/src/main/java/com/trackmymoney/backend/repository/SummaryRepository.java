@@ -0,0 +1,136 @@
+package com.trackmymoney.backend.repository;
+
+import com.trackmymoney.backend.dto.DashboardSummaryDTO;
+import com.trackmymoney.backend.dto.FinanceSummary;
+import com.trackmymoney.backend.dto.MonthlySummaryResponse;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Cross-table aggregates that would otherwise take one query per table.
+ * Every figure is a scalar subquery so Postgres answers in a single round
+ * trip. Income, expense and borrowed/lent-by-start-date totals come from
+ * user_month_rollup (one row per month and category, whatever the row
+ * count); open and overdue balances come from the partial open-item
+ * indexes in db/postgresql-indexes.sql.
+ */
+@Repository
+public class SummaryRepository {
+
+    private static final String MONTHLY_TOTALS = "SELECT"
+            + " r.total_income, r.total_expense, r.total_borrowed, r.total_lent,"
+            + " (SELECT COALESCE(SUM(amount), 0) FROM borrowings"
+            + "   WHERE user_id = :userId AND settled = false)"
+            + " + (SELECT COALESCE(SUM(amount), 0) FROM lendings"
+            + "   WHERE user_id = :userId AND settled = false) AS unsettled"
+            + " FROM (SELECT COALESCE(SUM(income_total), 0) AS total_income,"
+            + "   COALESCE(SUM(expense_total), 0) AS total_expense,"
+            + "   COALESCE(SUM(borrowed_total), 0) AS total_borrowed,"
+            + "   COALESCE(SUM(lent_total), 0) AS total_lent"
+            + "   FROM user_month_rollup"
+            + "   WHERE user_id = :userId AND month BETWEEN :start AND :end) r";
+
+    // The finance report lists borrowings/lendings due in the month, so those two stay on due_date
+    private static final String FINANCE_TOTALS = "SELECT"
+            + " r.total_income, r.total_expense,"
+            + " (SELECT COALESCE(SUM(amount), 0) FROM borrowings"
+            + "   WHERE user_id = :userId AND due_date BETWEEN :start AND :end) AS borrowed_due,"
+            + " (SELECT COALESCE(SUM(amount), 0) FROM lendings"
+            + "   WHERE user_id = :userId AND due_date BETWEEN :start AND :end) AS lent_due"
+            + " FROM (SELECT COALESCE(SUM(income_total), 0) AS total_income,"
+            + "   COALESCE(SUM(expense_total), 0) AS total_expense"
+            + "   FROM user_month_rollup"
+            + "   WHERE user_id = :userId AND month BETWEEN :start AND :end) r";
+
+    // Open borrowings/lendings and overdue amounts; the period (when given) narrows
+    // income and expense by month and borrowed/lent by borrow/lend date
+    private static final String DASHBOARD_TOTALS = dashboardTotals(false);
+    private static final String DASHBOARD_TOTALS_IN_PERIOD = dashboardTotals(true);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SummaryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public MonthlySummaryResponse monthlyTotals(Long userId, LocalDate start, LocalDate end) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("start", start)
+                .addValue("end", end);
+
+        return jdbcTemplate.queryForObject(MONTHLY_TOTALS, params, (rs, rowNum) -> new MonthlySummaryResponse(
+                rs.getBigDecimal("total_income"),
+                rs.getBigDecimal("total_expense"),
+                rs.getBigDecimal("total_income").subtract(rs.getBigDecimal("total_expense")),
+                rs.getBigDecimal("total_borrowed"),
+                rs.getBigDecimal("total_lent"),
+                rs.getBigDecimal("unsettled")
+        ));
+    }
+
+    public FinanceSummary financeTotals(Long userId, LocalDate start, LocalDate end) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("start", start)
+                .addValue("end", end);
+
+        return jdbcTemplate.queryForObject(FINANCE_TOTALS, params, (rs, rowNum) -> new FinanceSummary(
+                rs.getBigDecimal("total_income"),
+                rs.getBigDecimal("total_expense"),
+                rs.getBigDecimal("borrowed_due"),
+                rs.getBigDecimal("lent_due")
+        ));
+    }
+
+    /**
+     * Home page totals in one row. A null start/end means all time; overdue
+     * figures are always every open item due on or before today.
+     */
+    public DashboardSummaryDTO dashboardTotals(Long userId, LocalDate start, LocalDate end, LocalDate today) {
+        boolean period = start != null && end != null;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("start", start)
+                .addValue("end", end)
+                .addValue("today", today);
+
+        return jdbcTemplate.queryForObject(
+                period ? DASHBOARD_TOTALS_IN_PERIOD : DASHBOARD_TOTALS,
+                params,
+                (rs, rowNum) -> new DashboardSummaryDTO(
+                        rs.getBigDecimal("total_income"),
+                        rs.getBigDecimal("total_expense"),
+                        rs.getBigDecimal("total_borrowed"),
+                        rs.getBigDecimal("total_lent"),
+                        rs.getBigDecimal("overdue_borrowed"),
+                        rs.getBigDecimal("overdue_lent")
+                ));
+    }
+
+    // Two fixed statements rather than "(:start IS NULL OR ...)" so either one keeps its index plan
+    private static String dashboardTotals(boolean period) {
+        return "SELECT"
+                + " r.total_income, r.total_expense,"
+                + " (SELECT COALESCE(SUM(amount), 0) FROM borrowings"
+                + "   WHERE user_id = :userId AND settled = false" + inPeriod("borrow_date", period) + ") AS total_borrowed,"
+                + " (SELECT COALESCE(SUM(amount), 0) FROM lendings"
+                + "   WHERE user_id = :userId AND settled = false" + inPeriod("lend_date", period) + ") AS total_lent,"
+                + " (SELECT COALESCE(SUM(amount), 0) FROM borrowings"
+                + "   WHERE user_id = :userId AND settled = false AND due_date <= :today) AS overdue_borrowed,"
+                + " (SELECT COALESCE(SUM(amount), 0) FROM lendings"
+                + "   WHERE user_id = :userId AND settled = false AND due_date <= :today) AS overdue_lent"
+                + " FROM (SELECT COALESCE(SUM(income_total), 0) AS total_income,"
+                + "   COALESCE(SUM(expense_total), 0) AS total_expense"
+                + "   FROM user_month_rollup"
+                + "   WHERE user_id = :userId" + inPeriod("month", period) + ") r";
+    }
+
+    private static String inPeriod(String column, boolean period) {
+        return period ? " AND " + column + " BETWEEN :start AND :end" : "";
+    }
+}
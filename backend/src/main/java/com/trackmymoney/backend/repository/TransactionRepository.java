@@ -1,10 +1,17 @@
 package com.trackmymoney.backend.repository;
 
+import com.trackmymoney.backend.dto.TransactionResponse;
 import com.trackmymoney.backend.entity.Transaction;
 import com.trackmymoney.backend.entity.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
@@ -12,5 +19,26 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     List<Transaction> findByUserIdAndType(Long userId, TransactionType type);
 
-    void deleteByUserId(Long userId);
+    @Query("SELECT new com.trackmymoney.backend.dto.TransactionResponse("
+            + "t.id, t.amount, t.description, t.type, t.settled)"
+            + " FROM Transaction t WHERE t.id = :id")
+    Optional<TransactionResponse> findResponseById(@Param("id") Long id);
+
+    // Settlement as single guarded UPDATEs; callers check the row count
+    @Modifying
+    @Transactional
+    @Query("UPDATE Transaction t SET t.settled = true WHERE t.id = :id AND t.user.id = :userId")
+    int settle(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Transaction t SET t.settled = true"
+            + " WHERE t.user.id = :userId AND t.settled = false AND t.id IN :ids")
+    int settleAll(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Transaction t SET t.settled = true"
+            + " WHERE t.user.id = :userId AND t.settled = false AND t.personName = :counterparty")
+    int settleAllFor(@Param("userId") Long userId, @Param("counterparty") String counterparty);
 }
@@ -0,0 +1,97 @@
+package com.trackmymoney.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * If-Match updates as one statement each. The CTE locks the row only if it
+ * still has the expected version, the UPDATE bumps that version, and
+ * RETURNING hands back the replaced rollup fields (amount, date, category)
+ * with the new version. Callers need no read before or after the write.
+ * Empty when the row is missing, belongs to someone else or has moved on.
+ */
+@Repository
+public class VersionedUpdateRepository {
+
+    /** The values an UPDATE replaced, plus what the row holds now that a request does not carry. */
+    public record Replaced(BigDecimal amount, LocalDate date, String category, boolean settled, long version) {
+    }
+
+    private static final String EXPENSE = "WITH old AS ("
+            + "SELECT id, amount, expense_date, category FROM expenses"
+            + " WHERE id = ? AND user_id = ? AND version = ? FOR UPDATE)"
+            + " UPDATE expenses e SET amount = ?, category = ?, description = ?, expense_date = ?,"
+            + " version = e.version + 1"
+            + " FROM old WHERE e.id = old.id"
+            + " RETURNING old.amount, old.expense_date, old.category, false, e.version";
+
+    private static final String INCOME = "WITH old AS ("
+            + "SELECT id, amount, income_date, category FROM incomes"
+            + " WHERE id = ? AND user_id = ? AND version = ? FOR UPDATE)"
+            + " UPDATE incomes i SET amount = ?, source = ?, category = ?, description = ?, income_date = ?,"
+            + " version = i.version + 1"
+            + " FROM old WHERE i.id = old.id"
+            + " RETURNING old.amount, old.income_date, old.category, false, i.version";
+
+    private static final String BORROWING = "WITH old AS ("
+            + "SELECT id, amount, borrow_date FROM borrowings"
+            + " WHERE id = ? AND user_id = ? AND version = ? FOR UPDATE)"
+            + " UPDATE borrowings b SET name = ?, amount = ?, borrow_date = ?, due_date = ?,"
+            + " version = b.version + 1"
+            + " FROM old WHERE b.id = old.id"
+            + " RETURNING old.amount, old.borrow_date, NULL, b.settled, b.version";
+
+    private static final String LENDING = "WITH old AS ("
+            + "SELECT id, amount, lend_date FROM lendings"
+            + " WHERE id = ? AND user_id = ? AND version = ? FOR UPDATE)"
+            + " UPDATE lendings l SET name = ?, amount = ?, lend_date = ?, due_date = ?,"
+            + " version = l.version + 1"
+            + " FROM old WHERE l.id = old.id"
+            + " RETURNING old.amount, old.lend_date, NULL, l.settled, l.version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VersionedUpdateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Replaced> updateExpense(Long id, Long userId, Long version,
+                                            BigDecimal amount, String category,
+                                            String description, LocalDate expenseDate) {
+        return run(EXPENSE, id, userId, version, amount, category, description, expenseDate);
+    }
+
+    public Optional<Replaced> updateIncome(Long id, Long userId, Long version,
+                                           BigDecimal amount, String source, String category,
+                                           String description, LocalDate incomeDate) {
+        return run(INCOME, id, userId, version, amount, source, category, description, incomeDate);
+    }
+
+    public Optional<Replaced> updateBorrowing(Long id, Long userId, Long version,
+                                              String name, BigDecimal amount,
+                                              LocalDate borrowDate, LocalDate dueDate) {
+        return run(BORROWING, id, userId, version, name, amount, borrowDate, dueDate);
+    }
+
+    public Optional<Replaced> updateLending(Long id, Long userId, Long version,
+                                            String name, BigDecimal amount,
+                                            LocalDate lendDate, LocalDate dueDate) {
+        return run(LENDING, id, userId, version, name, amount, lendDate, dueDate);
+    }
+
+    private Optional<Replaced> run(String sql, Object... args) {
+        List<Replaced> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new Replaced(
+                rs.getBigDecimal(1),
+                rs.getObject(2, LocalDate.class),
+                rs.getString(3),
+                rs.getBoolean(4),
+                rs.getLong(5)
+        ), args);
+        return rows.stream().findFirst();
+    }
+}
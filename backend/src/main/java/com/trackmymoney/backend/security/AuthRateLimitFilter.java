@@ -0,0 +1,232 @@
+package com.trackmymoney.backend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Throttles the credential endpoints before they reach AuthController,
+ * so credential-stuffing traffic is turned away before any BCrypt work.
+ * Two independent token buckets apply: one per client IP and one per
+ * target email.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of(
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/auth/google",
+            "/api/auth/refresh"
+    );
+
+    // Credential payloads are tiny; anything bigger is rejected with 413
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter accountLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean trustForwardedFor;
+
+    private final Counter ipRejections;
+    private final Counter accountRejections;
+
+    public AuthRateLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${AUTH_RATE_LIMIT_IP_BURST:20}") int ipBurst,
+            @Value("${AUTH_RATE_LIMIT_IP_PER_MINUTE:20}") int ipPerMinute,
+            @Value("${AUTH_RATE_LIMIT_ACCOUNT_BURST:5}") int accountBurst,
+            @Value("${AUTH_RATE_LIMIT_ACCOUNT_PER_MINUTE:5}") int accountPerMinute,
+            @Value("${AUTH_RATE_LIMIT_MAX_KEYS:100000}") int maxKeys,
+            @Value("${AUTH_RATE_LIMIT_TRUST_FORWARDED_FOR:false}") boolean trustForwardedFor
+    ) {
+        this.objectMapper = objectMapper;
+        this.trustForwardedFor = trustForwardedFor;
+        this.ipLimiter = new TokenBucketRateLimiter(ipBurst, ipPerMinute, maxKeys);
+        this.accountLimiter = new TokenBucketRateLimiter(accountBurst, accountPerMinute, maxKeys);
+
+        this.ipRejections = Counter.builder("auth.ratelimit.rejected")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        this.accountRejections = Counter.builder("auth.ratelimit.rejected")
+                .tag("key", "account")
+                .register(meterRegistry);
+        Gauge.builder("auth.ratelimit.buckets", ipLimiter, TokenBucketRateLimiter::size)
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.ratelimit.buckets", accountLimiter, TokenBucketRateLimiter::size)
+                .tag("key", "account")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod())
+                || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long retryAfter = ipLimiter.tryAcquire(clientIp(request));
+        if (retryAfter > 0) {
+            ipRejections.increment();
+            reject(response, retryAfter);
+            return;
+        }
+
+        if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+            tooLarge(response);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        if (cachedRequest.body.length > MAX_BODY_BYTES) {
+            // Chunked body without a Content-Length that ran past the limit
+            tooLarge(response);
+            return;
+        }
+        String email = extractEmail(cachedRequest.body);
+
+        if (email != null) {
+            retryAfter = accountLimiter.tryAcquire(email);
+            if (retryAfter > 0) {
+                accountRejections.increment();
+                reject(response, retryAfter);
+                return;
+            }
+        }
+
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    @Scheduled(fixedDelayString = "${AUTH_RATE_LIMIT_EVICT_MS:60000}")
+    public void evictIdleBuckets() {
+        ipLimiter.evictIdle();
+        accountLimiter.evictIdle();
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual()
+                    ? email.asText().trim().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException e) {
+            // Malformed JSON: let validation in the controller report it
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many attempts. Please try again later.\"}");
+    }
+
+    private void tooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Request body is too large\"}");
+    }
+
+    /**
+     * Buffers the (small) JSON body so both this filter and the controller can read it.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so it is all available at once
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
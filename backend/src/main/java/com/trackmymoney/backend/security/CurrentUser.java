@@ -0,0 +1,62 @@
+package com.trackmymoney.backend.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal held in the request's SecurityContext.
+ * Carries the user id so services can query by id (or take a JPA reference)
+ * instead of loading the users row again.
+ */
+public class CurrentUser implements UserDetails {
+
+    private static final List<GrantedAuthority> AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("USER"));
+
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final String password;
+
+    public CurrentUser(Long id, String name, String email, String password) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.password = password;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getEmail() { return email; }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() { return true; }
+
+    @Override
+    public boolean isAccountNonLocked() { return true; }
+
+    @Override
+    public boolean isCredentialsNonExpired() { return true; }
+
+    @Override
+    public boolean isEnabled() { return true; }
+}
@@ -0,0 +1,103 @@
+package com.trackmymoney.backend.security;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Serves Google signing certificates from a local file instead of the network.
+ * Used by tests and offline environments; the file uses the same JSON layout
+ * as https://www.googleapis.com/oauth2/v1/certs ({"kid": "-----BEGIN CERTIFICATE-----..."}).
+ */
+public class FileCertsHttpTransport extends HttpTransport {
+
+    private final Path certsFile;
+    private final long maxAgeSeconds;
+
+    public FileCertsHttpTransport(Path certsFile, long maxAgeSeconds) {
+        this.certsFile = certsFile;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new LowLevelHttpRequest() {
+            @Override
+            public void addHeader(String name, String value) {
+                // headers are irrelevant for a file read
+            }
+
+            @Override
+            public LowLevelHttpResponse execute() throws IOException {
+                return new FileResponse(Files.readAllBytes(certsFile), maxAgeSeconds);
+            }
+        };
+    }
+
+    private static class FileResponse extends LowLevelHttpResponse {
+
+        private final byte[] content;
+        private final String cacheControl;
+
+        FileResponse(byte[] content, long maxAgeSeconds) {
+            this.content = content;
+            this.cacheControl = "public, max-age=" + maxAgeSeconds;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public long getContentLength() {
+            return content.length;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/json; charset=UTF-8";
+        }
+
+        @Override
+        public String getStatusLine() {
+            return "HTTP/1.1 200 OK";
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "OK";
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return 1;
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return "Cache-Control";
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return cacheControl;
+        }
+    }
+}
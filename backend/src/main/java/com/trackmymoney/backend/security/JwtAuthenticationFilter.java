@@ -20,13 +20,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
 
     public JwtAuthenticationFilter(
             JwtUtil jwtUtil,
-            UserDetailsService userDetailsService
+            UserDetailsService userDetailsService,
+            TokenRevocationList tokenRevocationList
     ) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
@@ -42,26 +45,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
+        VerifiedToken token = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
             try {
-                email = jwtUtil.extractEmail(token);
+                // Parsed and signature-checked once for the whole request
+                token = jwtUtil.verify(authHeader.substring(7));
             } catch (JwtException | IllegalArgumentException e) {
                 // Invalid token format or parse error; do not authenticate
                 // Log at debug level to avoid noise on invalid tokens
             }
         }
 
-        if (email != null &&
+        if (token != null && tokenRevocationList.isRevoked(token.tokenId())) {
+            token = null;
+        }
+
+        if (token != null &&
                 SecurityContextHolder.getContext().getAuthentication() == null) {
 
             UserDetails userDetails =
-                    userDetailsService.loadUserByUsername(email);
+                    userDetailsService.loadUserByUsername(token.email());
 
-            // 🔥 THIS IS THE FIX
             if (jwtUtil.validateToken(token, userDetails)) {
 
                 UsernamePasswordAuthenticationToken authentication =
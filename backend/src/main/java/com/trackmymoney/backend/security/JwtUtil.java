@@ -1,17 +1,25 @@
 package com.trackmymoney.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -19,45 +27,105 @@ public class JwtUtil {
     @Value("${JWT_SECRET:fallback-secret-should-be-overridden-in-production}")
     private String secret;
 
-    private Key getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-    }
+    @Value("${JWT_VERIFIED_CACHE_SIZE:10000}")
+    private long verifiedCacheSize;
+
+    private static final String USER_ID_CLAIM = "uid";
+
+    // Short-lived: clients renew through /api/auth/refresh
+    @Value("${JWT_ACCESS_TOKEN_MINUTES:15}")
+    private long accessTokenMinutes;
 
-    private static final long EXPIRATION_TIME =
-            1000 * 60 * 60 * 24; // 24 hours
+    // Built once; JwtParser is immutable and safe to share between threads
+    private Key key;
+    private JwtParser parser;
+
+    // Keyed by the full compact token, not just its signature part, so a
+    // tampered payload can never reuse a previously verified signature
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
 
-    public String generateToken(String email) {
+    public String generateToken(String email, Long userId) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
+                .claim(USER_ID_CLAIM, userId)
                 .setIssuedAt(new Date())
                 .setExpiration(
-                        new Date(System.currentTimeMillis() + EXPIRATION_TIME)
+                        new Date(System.currentTimeMillis() + accessTokenMinutes * 60_000)
                 )
-                .signWith(getKey(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return email.equals(userDetails.getUsername())
-                && !isTokenExpired(token);
-    }
+    /**
+     * Parses and HMAC-verifies the token, skipping the HMAC for tokens
+     * verified recently. Throws JwtException if invalid or expired.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            if (cached.isExpired()) {
+                verifiedTokens.invalidate(token);
+                throw new ExpiredJwtException(null, null, "JWT expired");
+            }
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
 
-    public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        if (verified.expiresAt() != null) {
+            verifiedTokens.put(token, verified);
+        }
+        return verified;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token)
-                .getExpiration()
-                .before(new Date());
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        boolean sameUser = token.userId() == null
+                || !(userDetails instanceof CurrentUser currentUser)
+                || token.userId().equals(currentUser.getId());
+
+        return token.email() != null
+                && token.email().equals(userDetails.getUsername())
+                && sameUser
+                && !token.isExpired();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken value, long currentTime) {
+            long nanos = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+            return Math.max(nanos, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken value,
+                                      long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
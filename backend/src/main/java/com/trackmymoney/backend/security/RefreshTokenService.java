@@ -0,0 +1,122 @@
+package com.trackmymoney.backend.security;
+
+import com.trackmymoney.backend.entity.RefreshToken;
+import com.trackmymoney.backend.entity.User;
+import com.trackmymoney.backend.exception.InvalidTokenException;
+import com.trackmymoney.backend.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues access/refresh token pairs. Refresh tokens are opaque random values
+ * stored server-side (hashed) and rotated on every use; presenting an already
+ * rotated token revokes the whole family for that user.
+ */
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtUtil jwtUtil;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${JWT_REFRESH_TOKEN_DAYS:14}")
+    private long refreshTokenDays;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenRevocationList tokenRevocationList,
+                               JwtUtil jwtUtil) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationList = tokenRevocationList;
+        this.jwtUtil = jwtUtil;
+    }
+
+    public record IssuedTokens(String accessToken, String refreshToken, User user) {}
+
+    @Transactional
+    public IssuedTokens issue(User user) {
+        byte[] random = new byte[32];
+        secureRandom.nextBytes(random);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setExpiresAt(Instant.now().plus(Duration.ofDays(refreshTokenDays)));
+        refreshToken.setUser(user);
+        refreshTokenRepository.save(refreshToken);
+
+        return new IssuedTokens(
+                jwtUtil.generateToken(user.getEmail(), user.getId()),
+                rawToken,
+                user
+        );
+    }
+
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public IssuedTokens rotate(String rawToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+
+        if (stored.isRevoked()) {
+            // A rotated token came back: assume it leaked and end every session
+            throw revokeFamily(stored);
+        }
+        if (stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidTokenException("Refresh token has expired");
+        }
+        // Two refreshes with the same token can both get past the read above;
+        // the guarded UPDATE lets only one of them rotate it
+        if (refreshTokenRepository.revokeIfActive(stored.getId()) == 0) {
+            throw revokeFamily(stored);
+        }
+
+        return issue(stored.getUser());
+    }
+
+    private InvalidTokenException revokeFamily(RefreshToken stored) {
+        refreshTokenRepository.revokeAllByUserId(stored.getUser().getId());
+        return new InvalidTokenException("Refresh token has been revoked");
+    }
+
+    @Transactional
+    public void logout(String rawRefreshToken, VerifiedToken accessToken) {
+        if (rawRefreshToken != null) {
+            refreshTokenRepository.findByTokenHash(hash(rawRefreshToken))
+                    .ifPresent(token -> token.setRevoked(true));
+        }
+        if (accessToken != null) {
+            tokenRevocationList.revoke(accessToken.tokenId(), accessToken.expiresAt());
+        }
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${TOKEN_REVOCATION_PURGE_MS:3600000}", initialDelayString = "${TOKEN_REVOCATION_PURGE_MS:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
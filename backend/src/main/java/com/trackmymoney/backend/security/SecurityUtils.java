@@ -1,15 +1,13 @@
 package com.trackmymoney.backend.security;
 
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 public class SecurityUtils {
 
     public static String getCurrentUserEmail() {
-        Object principal = SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
+        Object principal = getPrincipal();
 
         if (principal instanceof UserDetails userDetails) {
             return userDetails.getUsername(); // email
@@ -17,4 +15,29 @@ public class SecurityUtils {
 
         throw new RuntimeException("Unauthenticated user");
     }
+
+    public static CurrentUser getCurrentUser() {
+        if (getPrincipal() instanceof CurrentUser currentUser) {
+            return currentUser;
+        }
+
+        throw new RuntimeException("Unauthenticated user");
+    }
+
+    public static Long getCurrentUserId() {
+        return getCurrentUser().getId();
+    }
+
+    /** Null outside an authenticated request, e.g. on scheduler threads. */
+    public static Long findCurrentUserId() {
+        return getPrincipal() instanceof CurrentUser currentUser ? currentUser.getId() : null;
+    }
+
+    private static Object getPrincipal() {
+        Authentication authentication = SecurityContextHolder
+                .getContext()
+                .getAuthentication();
+
+        return authentication != null ? authentication.getPrincipal() : null;
+    }
 }
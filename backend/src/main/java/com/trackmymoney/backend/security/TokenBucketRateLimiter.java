@@ -0,0 +1,94 @@
+package com.trackmymoney.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by string. Each bucket is a single AtomicLong
+ * packing (last refill time in ms, tokens scaled by 1000) and is updated with
+ * CAS, so concurrent requests never block each other. Buckets live in a
+ * Caffeine cache capped at maxBuckets. Every key keeps a bucket of its own:
+ * when full, Caffeine evicts by recency and frequency, so churning through
+ * fresh keys pushes out other one-off keys before the ones under steady use.
+ * A bucket untouched for long enough to refill completely expires; it holds
+ * nothing a fresh bucket would not. Eviction and expiry run as Caffeine's
+ * amortized maintenance, not as a scan on the request thread.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long SCALE = 1000;
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    private final long capacityScaled;
+    private final double refillPerMs;
+    // Timestamps are stored relative to this, leaving 40 bits (~34 years) of ms
+    private final long epochMillis = System.currentTimeMillis();
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity        burst size
+     * @param refillPerMinute tokens added back per minute
+     * @param maxBuckets      hard cap on tracked keys
+     */
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxBuckets) {
+        if (capacity <= 0 || refillPerMinute <= 0 || maxBuckets <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity, refill per minute and max buckets must be positive,"
+                    + " got " + capacity + ", " + refillPerMinute + ", " + maxBuckets);
+        }
+        this.capacityScaled = Math.min((long) capacity * SCALE, TOKEN_MASK);
+        this.refillPerMs = refillPerMinute * SCALE / 60_000.0;
+
+        long refillMillis = (long) Math.ceil(capacityScaled / refillPerMs);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofMillis(refillMillis))
+                .build();
+    }
+
+    /**
+     * Takes one token. Returns 0 when allowed, otherwise the number of
+     * seconds until a token becomes available.
+     */
+    public long tryAcquire(String key) {
+        long now = System.currentTimeMillis() - epochMillis;
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(pack(now, capacityScaled)));
+
+        while (true) {
+            long state = bucket.get();
+            long tokens = refill(state, now);
+
+            if (tokens < SCALE) {
+                long missing = SCALE - tokens;
+                return Math.max(1, (long) Math.ceil(missing / refillPerMs / 1000.0));
+            }
+
+            if (bucket.compareAndSet(state, pack(now, tokens - SCALE))) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    /** Runs pending expiry, so idle buckets go even when no new keys arrive. */
+    public void evictIdle() {
+        buckets.cleanUp();
+    }
+
+    private long refill(long state, long now) {
+        long last = state >>> TOKEN_BITS;
+        long tokens = state & TOKEN_MASK;
+        long elapsed = Math.max(0, now - last);
+        return Math.min(capacityScaled, tokens + (long) (elapsed * refillPerMs));
+    }
+
+    private static long pack(long now, long tokens) {
+        return (now << TOKEN_BITS) | tokens;
+    }
+}
@@ -0,0 +1,132 @@
+package com.trackmymoney.backend.security;
+
+import com.trackmymoney.backend.entity.RevokedToken;
+import com.trackmymoney.backend.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory view of revoked access tokens (by jti), rebuilt from the
+ * revoked_tokens table on startup and after each purge of expired rows.
+ *
+ * isRevoked() runs on every authenticated request: it reads a Bloom filter
+ * and only consults the exact set on a Bloom hit. It takes no locks and
+ * allocates nothing (String.hashCode is cached by the JVM).
+ */
+@Component
+public class TokenRevocationList implements SmartInitializingSingleton {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(0);
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        Gauge.builder("auth.tokens.revoked", this, list -> list.snapshot.tokenIds.size())
+                .register(meterRegistry);
+    }
+
+    // Runs before the web server starts, so no request sees an empty list
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        return current.mightContain(tokenId) && current.tokenIds.contains(tokenId);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        synchronized (writeLock) {
+            revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+            snapshot.add(tokenId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${TOKEN_REVOCATION_PURGE_MS:3600000}", initialDelayString = "${TOKEN_REVOCATION_PURGE_MS:3600000}")
+    public void purgeExpired() {
+        transactionTemplate.executeWithoutResult(status ->
+                revokedTokenRepository.deleteExpired(Instant.now()));
+        rebuild();
+    }
+
+    private void rebuild() {
+        synchronized (writeLock) {
+            List<String> tokenIds = revokedTokenRepository.findActiveTokenIds(Instant.now());
+            Snapshot rebuilt = new Snapshot(tokenIds.size());
+            tokenIds.forEach(rebuilt::add);
+            snapshot = rebuilt;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private static final int HASHES = 4;
+        private static final int MIN_BITS = 1 << 14;
+
+        private final AtomicLongArray bits;
+        private final int mask;
+        private final Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+        Snapshot(int expectedEntries) {
+            // ~16 bits per entry with headroom for revocations until the next rebuild
+            int wanted = Math.max(MIN_BITS, expectedEntries * 32);
+            int size = Integer.highestOneBit(wanted - 1) << 1;
+            this.bits = new AtomicLongArray(size >>> 6);
+            this.mask = size - 1;
+        }
+
+        void add(String tokenId) {
+            tokenIds.add(tokenId);
+            long hash = mix(tokenId.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                bits.getAndAccumulate(bit >>> 6, 1L << bit, (a, b) -> a | b);
+            }
+        }
+
+        boolean mightContain(String tokenId) {
+            long hash = mix(tokenId.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long mix(int hashCode) {
+            long z = hashCode * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.trackmymoney.backend.security;
+
+import java.time.Instant;
+
+/**
+ * Result of parsing and signature-checking a JWT once per request.
+ */
+public record VerifiedToken(
+        String tokenId,
+        String email,
+        Long userId,
+        Instant expiresAt
+) {
+
+    public boolean isExpired() {
+        return expiresAt != null && !Instant.now().isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,230 @@
+package com.trackmymoney.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trackmymoney.backend.config.ReplicaRoutingDataSource;
+import com.trackmymoney.backend.dto.AccountResetStatus;
+import com.trackmymoney.backend.exception.JobNotFoundException;
+import com.trackmymoney.backend.exception.ServiceBusyException;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes all of a user's financial data in the background. Each table is
+ * emptied with repeated bulk DELETEs of at most ACCOUNT_RESET_CHUNK_SIZE
+ * rows, each in its own short transaction, so no statement holds locks or
+ * a connection for long. One job per user at a time; finished jobs stay
+ * queryable for ACCOUNT_RESET_JOB_TTL_MINUTES.
+ */
+@Service
+public class AccountResetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountResetService.class);
+
+    // Children first; nothing references these rows, but keep a stable order
+    private static final List<String> TABLES =
+            List.of("transactions", "lendings", "borrowings", "incomes", "expenses");
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
+    private final int chunkSize;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Job> jobs;
+    private final Map<Long, Job> activeByUser = new ConcurrentHashMap<>();
+    private final Timer duration;
+
+    public AccountResetService(
+            JdbcTemplate jdbcTemplate,
+            MonthlyRollupRepository rollupRepository,
+            SummaryCache summaryCache,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+            MeterRegistry meterRegistry,
+            @Value("${ACCOUNT_RESET_CHUNK_SIZE:5000}") int chunkSize,
+            @Value("${ACCOUNT_RESET_THREADS:2}") int threads,
+            @Value("${ACCOUNT_RESET_QUEUE_SIZE:100}") int queueSize,
+            @Value("${ACCOUNT_RESET_JOB_TTL_MINUTES:60}") long jobTtlMinutes
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
+        this.replicaRouting = replicaRouting;
+        this.chunkSize = chunkSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "account-reset-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(jobTtlMinutes))
+                .build();
+
+        this.duration = Timer.builder("account.reset.duration").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Starts a reset, or returns the one already running for this user. */
+    public AccountResetStatus submit(Long userId, Runnable onCompleted) {
+        Job job = new Job(UUID.randomUUID().toString(), userId);
+
+        Job existing = activeByUser.putIfAbsent(userId, job);
+        if (existing != null) {
+            return existing.status();
+        }
+
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, onCompleted));
+        } catch (RejectedExecutionException e) {
+            activeByUser.remove(userId, job);
+            jobs.invalidate(job.id);
+            throw new ServiceBusyException("Too many account resets in progress, please retry shortly", 30);
+        }
+        return job.status();
+    }
+
+    public AccountResetStatus status(Long userId, String jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new JobNotFoundException("Reset job not found: " + jobId);
+        }
+        return job.status();
+    }
+
+    private void run(Job job, Runnable onCompleted) {
+        job.start();
+        Timer.Sample sample = Timer.start();
+
+        try {
+            for (String table : TABLES) {
+                job.currentTable = table;
+                deleteInChunks(job, table);
+            }
+            // Rebuilt rather than cleared: rows added while the reset ran are kept
+            rollupRepository.rebuild(job.userId);
+            job.finish(State.COMPLETED, null);
+            onCompleted.run();
+            logger.info("Account reset {} for user {} deleted {} rows", job.id, job.userId, job.deletedRows());
+        } catch (CancellationException e) {
+            // Usually shutdownNow on redeploy. The rollup is left for the
+            // nightly reconcile rather than rebuilt on a thread being stopped
+            logger.warn("Account reset {} for user {} interrupted after {} rows",
+                    job.id, job.userId, job.deletedRows());
+            job.finish(State.CANCELLED, "Reset was interrupted; deleted rows stay deleted, please retry");
+        } catch (RuntimeException e) {
+            logger.error("Account reset {} for user {} failed", job.id, job.userId, e);
+            job.finish(State.FAILED, "Reset failed; deleted rows stay deleted, please retry");
+        } finally {
+            // Even a failed reset has deleted some rows. The deletes auto-commit
+            // on this thread with no user, so routing can't see them by itself
+            summaryCache.evictUser(job.userId);
+            replicaRouting.ifAvailable(routing -> routing.rememberWrite(job.userId));
+            sample.stop(duration);
+            activeByUser.remove(job.userId, job);
+        }
+    }
+
+    private void deleteInChunks(Job job, String table) {
+        // Each chunk is picked through the table's user_id-leading index and
+        // deleted in its own auto-committed statement
+        String sql = "DELETE FROM " + table + " WHERE id IN ("
+                + "SELECT id FROM " + table + " WHERE user_id = ? LIMIT ?)";
+
+        int deleted;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Account reset interrupted in " + table);
+            }
+            deleted = jdbcTemplate.update(sql, job.userId, chunkSize);
+            job.deleted(table, deleted);
+        } while (deleted == chunkSize);
+    }
+
+    private static final class Job {
+
+        final String id;
+        final Long userId;
+        final Map<String, Long> deletedByTable = new ConcurrentHashMap<>();
+        volatile State state = State.QUEUED;
+        volatile String currentTable;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        Job(String id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        void start() {
+            startedAt = Instant.now();
+            state = State.RUNNING;
+        }
+
+        void deleted(String table, int rows) {
+            deletedByTable.merge(table, (long) rows, Long::sum);
+        }
+
+        void finish(State finalState, String message) {
+            error = message;
+            currentTable = null;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        long deletedRows() {
+            return deletedByTable.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        AccountResetStatus status() {
+            Map<String, Long> byTable = new LinkedHashMap<>();
+            for (String table : TABLES) {
+                byTable.put(table, deletedByTable.getOrDefault(table, 0L));
+            }
+            return new AccountResetStatus(
+                    id, state.name(), deletedRows(), byTable,
+                    currentTable, startedAt, finishedAt, error
+            );
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.trackmymoney.backend.service;
 
 import com.trackmymoney.backend.dto.BorrowingRequest;
 import com.trackmymoney.backend.dto.BorrowingResponse;
+import com.trackmymoney.backend.dto.BulkSettleRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 
 import java.util.List;
 
@@ -9,11 +11,15 @@ public interface BorrowingService {
 
     BorrowingResponse add(BorrowingRequest request);
 
-    BorrowingResponse update(Long id, BorrowingRequest request);
+    BorrowingResponse update(Long id, BorrowingRequest request, Long expectedVersion);
 
     void delete(Long id);
 
     void settle(Long id);
 
+    int settleAll(BulkSettleRequest request);
+
     List<BorrowingResponse> getAll();
+
+    CursorPage<BorrowingResponse> getPage(String cursor, int limit);
 }
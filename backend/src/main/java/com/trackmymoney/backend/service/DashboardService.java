@@ -1,8 +1,7 @@
 package com.trackmymoney.backend.service;
 
-import com.trackmymoney.backend.entity.User;
-import java.util.Map;
+import com.trackmymoney.backend.dto.DashboardSummaryDTO;
 
 public interface DashboardService {
-    Map<String, Double> getDashboardStats(User user, Integer year, String month);
-}
\ No newline at end of file
+    DashboardSummaryDTO getDashboardStats(Long userId, Integer year, Integer month);
+}
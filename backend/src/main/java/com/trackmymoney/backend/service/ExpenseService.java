@@ -1,6 +1,7 @@
 package com.trackmymoney.backend.service;
 
 import com.trackmymoney.backend.dto.CreateExpenseRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.ExpenseResponse;
 
 import java.util.List;
@@ -11,9 +12,11 @@ public interface ExpenseService {
 
     List<ExpenseResponse> getExpensesForCurrentUser();
 
+    CursorPage<ExpenseResponse> getExpensesPageForCurrentUser(String cursor, int limit);
+
     List<ExpenseResponse> getExpensesForCurrentUserByMonth(int year, int month);
 
-    ExpenseResponse updateExpense(Long id, CreateExpenseRequest request);
+    ExpenseResponse updateExpense(Long id, CreateExpenseRequest request, Long expectedVersion);
 
     void deleteExpense(Long id);
 }
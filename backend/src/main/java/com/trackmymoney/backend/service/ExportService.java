@@ -1,9 +1,11 @@
 package com.trackmymoney.backend.service;
 
-import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 
 public interface ExportService {
-    ByteArrayInputStream exportDataToCsv(String exportType, LocalDate startDate, LocalDate endDate, Long userId);
-    ByteArrayInputStream exportDataToPdf(String exportType, LocalDate startDate, LocalDate endDate, Long userId);
+    /** Writes the CSV to out row by row; out is left open. */
+    void exportCsv(String exportType, LocalDate startDate, LocalDate endDate, Long userId, OutputStream out);
+    /** Writes the PDF to out as rows are read; out is left open. */
+    void exportPdf(String exportType, LocalDate startDate, LocalDate endDate, Long userId, OutputStream out);
 }
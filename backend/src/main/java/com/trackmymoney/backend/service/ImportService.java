@@ -0,0 +1,14 @@
+package com.trackmymoney.backend.service;
+
+import com.trackmymoney.backend.dto.ImportResult;
+
+import java.io.InputStream;
+
+public interface ImportService {
+
+    /**
+     * Streams rows of the given type ("expenses" or "incomes") from a CSV
+     * file with a header row or a JSON array of objects.
+     */
+    ImportResult importRows(String type, boolean json, InputStream in, Long userId);
+}
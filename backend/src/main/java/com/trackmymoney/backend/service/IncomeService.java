@@ -1,5 +1,6 @@
 package com.trackmymoney.backend.service;
 
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.IncomeResponse;
 import com.trackmymoney.backend.dto.CreateIncomeRequest;
 
@@ -8,11 +9,13 @@ import java.util.List;
 public interface IncomeService {
 
     IncomeResponse addIncome(CreateIncomeRequest request);
-    IncomeResponse updateIncome(Long id, CreateIncomeRequest request);
+    IncomeResponse updateIncome(Long id, CreateIncomeRequest request, Long expectedVersion);
 
     void deleteIncome(Long id);
 
     List<IncomeResponse> getIncomesForCurrentUser();
 
+    CursorPage<IncomeResponse> getIncomesPageForCurrentUser(String cursor, int limit);
+
     List<IncomeResponse> getIncomesForCurrentUserByMonth(int year, int month);
 }
@@ -1,5 +1,7 @@
 package com.trackmymoney.backend.service;
 
+import com.trackmymoney.backend.dto.BulkSettleRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.LendingRequest;
 import com.trackmymoney.backend.dto.LendingResponse;
 
@@ -9,11 +11,15 @@ public interface LendingService {
 
     LendingResponse create(LendingRequest request);
 
-    LendingResponse update(Long id, LendingRequest request);
+    LendingResponse update(Long id, LendingRequest request, Long expectedVersion);
 
     void delete(Long id);
 
     List<LendingResponse> getAll();
 
+    CursorPage<LendingResponse> getPage(String cursor, int limit);
+
     void settle(Long id);
+
+    int settleAll(BulkSettleRequest request);
 }
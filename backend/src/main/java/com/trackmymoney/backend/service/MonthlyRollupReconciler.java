@@ -0,0 +1,70 @@
+package com.trackmymoney.backend.service;
+
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps user_month_rollup honest. On startup an empty table is backfilled
+ * from the raw rows before any request is served; on ROLLUP_RECONCILE_CRON
+ * a fresh aggregate is diffed against the stored buckets and every user
+ * that drifted is rebuilt. Drift should stay at zero; a non-zero
+ * "rollup.reconcile.repaired" count means some write path skipped the
+ * rollup.
+ */
+@Service
+public class MonthlyRollupReconciler implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyRollupReconciler.class);
+
+    private final MonthlyRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+    private final Counter repaired;
+    private final Timer duration;
+
+    public MonthlyRollupReconciler(MonthlyRollupRepository rollupRepository,
+                                   SummaryCache summaryCache,
+                                   MeterRegistry meterRegistry) {
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
+        this.repaired = Counter.builder("rollup.reconcile.repaired").register(meterRegistry);
+        this.duration = Timer.builder("rollup.reconcile.duration").register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (rollupRepository.isEmpty()) {
+            int buckets = rollupRepository.rebuildAll();
+            logger.info("Backfilled user_month_rollup with {} buckets", buckets);
+        }
+    }
+
+    @Scheduled(cron = "${ROLLUP_RECONCILE_CRON:0 30 3 * * *}")
+    public void reconcile() {
+        duration.record(() -> {
+            List<Long> drifted = rollupRepository.findDriftedUsers();
+
+            for (Long userId : drifted) {
+                try {
+                    rollupRepository.rebuild(userId);
+                    summaryCache.evictUser(userId);
+                    repaired.increment();
+                } catch (RuntimeException e) {
+                    logger.error("Could not rebuild rollup for user {}", userId, e);
+                }
+            }
+
+            if (!drifted.isEmpty()) {
+                logger.warn("Rollup drift repaired for {} users: {}", drifted.size(), drifted);
+            }
+        });
+    }
+}
@@ -0,0 +1,322 @@
+package com.trackmymoney.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trackmymoney.backend.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Rendered reports and exports, keyed by user, report, period and the
+ * user's data version, so any write makes that user's earlier renders
+ * unreachable. Files are named by their SHA-256, which is also the strong
+ * ETag. Two tiers, each bounded by a byte budget with Caffeine's size
+ * eviction: small files on heap (REPORT_CACHE_HEAP_BYTES), everything up to
+ * REPORT_CACHE_MAX_ENTRY_BYTES on disk in REPORT_CACHE_DIR
+ * (REPORT_CACHE_DISK_BYTES), served through a memory map. A render is
+ * streamed to the client and into the cache at once; larger output is
+ * streamed but not kept, and so is a render that read from a replica, which
+ * may predate the data version it would be stored under.
+ *
+ * Disk files are reference counted: one reference per cache entry and one
+ * per download in progress, so an eviction never pulls a file out from
+ * under a response that has already sent its Content-Length.
+ */
+@Component
+public class ReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCache.class);
+
+    public record Key(Long userId, long dataVersion, String report, List<Object> period) {
+    }
+
+    /** A cached render: bytes on heap, or a file on disk (release it after writeTo). */
+    public record Entry(String etag, long size, byte[] bytes, Path file) {
+
+        public void writeTo(OutputStream out) throws IOException {
+            if (bytes != null) {
+                out.write(bytes);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                WritableByteChannel target = Channels.newChannel(out);
+                while (mapped.hasRemaining()) {
+                    target.write(mapped);
+                }
+            }
+        }
+    }
+
+    private final UserDataVersions dataVersions;
+    private final Path dir;
+    private final long heapMaxEntryBytes;
+    private final long maxEntryBytes;
+    private final Cache<Key, Entry> heap;
+    private final Cache<Key, Entry> disk;
+    // Reference counts by file, changed only inside compute so a file is never
+    // deleted while it is being adopted again under the same digest
+    private final ConcurrentHashMap<Path, Integer> fileRefs = new ConcurrentHashMap<>();
+
+    public ReportCache(
+            UserDataVersions dataVersions,
+            MeterRegistry meterRegistry,
+            @Value("${REPORT_CACHE_DIR:${java.io.tmpdir}/trackmymoney-report-cache}") String dir,
+            @Value("${REPORT_CACHE_HEAP_BYTES:16777216}") long heapBytes,
+            @Value("${REPORT_CACHE_HEAP_MAX_ENTRY_BYTES:1048576}") long heapMaxEntryBytes,
+            @Value("${REPORT_CACHE_DISK_BYTES:536870912}") long diskBytes,
+            @Value("${REPORT_CACHE_MAX_ENTRY_BYTES:67108864}") long maxEntryBytes,
+            @Value("${REPORT_CACHE_TTL_HOURS:24}") long ttlHours
+    ) {
+        this.dataVersions = dataVersions;
+        this.dir = Path.of(dir);
+        this.heapMaxEntryBytes = heapMaxEntryBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, Integer.MAX_VALUE);
+
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create report cache directory " + dir, e);
+        }
+        // Data versions start over on restart, so old files could be served for new data
+        deleteFiles(this.dir);
+
+        this.heap = Caffeine.newBuilder()
+                .maximumWeight(heapBytes)
+                .<Key, Entry>weigher((key, entry) -> (int) entry.size())
+                .expireAfterAccess(Duration.ofHours(ttlHours))
+                .recordStats()
+                .build();
+
+        this.disk = Caffeine.newBuilder()
+                .maximumWeight(diskBytes)
+                .<Key, Entry>weigher((key, entry) -> (int) entry.size())
+                .expireAfterAccess(Duration.ofHours(ttlHours))
+                .<Key, Entry>removalListener((key, entry, cause) -> {
+                    if (entry != null) release(entry);
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, heap, "reports.heap");
+        CaffeineCacheMetrics.monitor(meterRegistry, disk, "reports.disk");
+    }
+
+    /** Key for the user's current data; build it before rendering, not after. */
+    public Key key(Long userId, String report, Object... period) {
+        return new Key(userId, dataVersions.current(userId), report, List.of(period));
+    }
+
+    /**
+     * The cached render for this key, or null. A disk entry comes back with
+     * its file held; pass it to release once written. Disk hits small enough
+     * move to heap.
+     */
+    public Entry get(Key key) {
+        Entry entry = heap.getIfPresent(key);
+        if (entry != null) return entry;
+
+        entry = disk.getIfPresent(key);
+        if (entry == null) return null;
+        if (!acquire(entry)) {
+            // Evicted between lookup and acquire
+            return null;
+        }
+        if (entry.size() > heapMaxEntryBytes) return entry;
+
+        try {
+            Entry onHeap = new Entry(entry.etag(), entry.size(), Files.readAllBytes(entry.file()), null);
+            heap.put(key, onHeap);
+            return onHeap;
+        } catch (IOException e) {
+            logger.warn("Could not read cached report {}: {}", entry.file(), e.getMessage());
+            disk.invalidate(key);
+            return null;
+        } finally {
+            release(entry);
+        }
+    }
+
+    /** Gives back a disk entry's file taken by get; a no-op for heap entries. */
+    public void release(Entry entry) {
+        if (entry.file() == null) return;
+
+        fileRefs.computeIfPresent(entry.file(), (file, refs) -> {
+            if (refs > 1) return refs - 1;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete cached report {}: {}", file, e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs the renderer into out and, alongside, into a cache file whose
+     * digest becomes the ETag. A failed or oversized render is not cached.
+     */
+    public void renderThrough(Key key, OutputStream out, Consumer<OutputStream> renderer) throws IOException {
+        Path part = Files.createTempFile(dir, "render-", ".part");
+        boolean kept = false;
+
+        try {
+            MessageDigest sha256 = sha256();
+            long size;
+            boolean complete;
+
+            try (CacheCopy copy = new CacheCopy(
+                    new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(part)), sha256),
+                    maxEntryBytes)) {
+                OutputStream tee = new TeeOutputStream(out, copy);
+                boolean fromReplica = ReplicaRoutingDataSource.readsReplica(() -> renderer.accept(tee));
+                tee.flush();
+                size = copy.written;
+                complete = !copy.overflowed && !fromReplica;
+            }
+            if (!complete) return;
+
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            Path file = adopt(part, dir.resolve(digest));
+            kept = true;
+
+            // The reference taken by adopt becomes the disk entry's
+            Entry entry = new Entry("\"" + digest + "\"", size, null, file);
+            if (size <= heapMaxEntryBytes) {
+                try {
+                    heap.put(key, new Entry(entry.etag(), size, Files.readAllBytes(file), null));
+                } catch (IOException e) {
+                    release(entry);
+                    throw e;
+                }
+            }
+            disk.put(key, entry);
+        } finally {
+            if (!kept) Files.deleteIfExists(part);
+        }
+    }
+
+    // Content-addressed: a file already kept for another key is shared, not replaced
+    private Path adopt(Path part, Path file) {
+        fileRefs.compute(file, (path, refs) -> {
+            try {
+                if (refs == null) {
+                    Files.move(part, path, StandardCopyOption.ATOMIC_MOVE);
+                    return 1;
+                }
+                Files.deleteIfExists(part);
+                return refs + 1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return file;
+    }
+
+    private boolean acquire(Entry entry) {
+        return fileRefs.computeIfPresent(entry.file(), (file, refs) -> refs + 1) != null;
+    }
+
+    private static void deleteFiles(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clear report cache directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Stops copying (but not the response) once the render is too big to cache
+    private static final class CacheCopy extends FilterOutputStream {
+
+        private final long limit;
+        long written;
+        boolean overflowed;
+
+        CacheCopy(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (overflowed) return;
+            if (written + len > limit) {
+                overflowed = true;
+                return;
+            }
+            out.write(b, off, len);
+            written += len;
+        }
+    }
+
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream first;
+        private final OutputStream second;
+
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
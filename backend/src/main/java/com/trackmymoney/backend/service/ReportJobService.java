@@ -0,0 +1,428 @@
+package com.trackmymoney.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.trackmymoney.backend.dto.ReportJobRequest;
+import com.trackmymoney.backend.dto.ReportJobStatus;
+import com.trackmymoney.backend.exception.InvalidReportException;
+import com.trackmymoney.backend.exception.JobNotFoundException;
+import com.trackmymoney.backend.exception.JobNotReadyException;
+import com.trackmymoney.backend.exception.ServiceBusyException;
+import com.trackmymoney.backend.security.CurrentUser;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Renders reports and exports in the background so a large range ties up
+ * neither a request thread nor a client that may time out. Jobs run on a
+ * bounded pool (REPORT_JOB_THREADS, REPORT_JOB_QUEUE_SIZE) and write to
+ * REPORT_SPOOL_DIR; a finished file is kept for REPORT_JOB_TTL_MINUTES and
+ * deleted together with its job. At most REPORT_JOB_MAX_PER_USER jobs per
+ * user are queued or running at a time.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public enum Type {
+        FINANCE_REPORT("Finance_Report", "pdf"),
+        EXPENSE_REPORT("Expenses", "pdf"),
+        INCOME_REPORT("Income", "pdf"),
+        BORROW_LEND_REPORT("Borrow_Lend", "pdf"),
+        EXPENSES_CSV("expenses", "csv"),
+        EXPENSES_PDF("expenses", "pdf"),
+        INCOMES_CSV("incomes", "csv"),
+        INCOMES_PDF("incomes", "pdf");
+
+        // Report filename prefix, or the ExportService type for exports
+        final String label;
+        final String extension;
+
+        Type(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        boolean isExport() {
+            return name().endsWith("_CSV") || name().endsWith("_PDF");
+        }
+
+        String contentType() {
+            return extension.equals("csv") ? "application/csv" : "application/pdf";
+        }
+    }
+
+    /** A finished report on disk. */
+    public record ReportFile(Path path, String filename, String contentType, long size) {
+    }
+
+    private final ReportService reportService;
+    private final ExportService exportService;
+    private final Path spoolDir;
+    private final Duration ttl;
+    private final int maxPerUser;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Job> jobs;
+    // Queued or running jobs per user
+    private final Map<Long, Integer> pendingByUser = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ReportJobService(
+            ReportService reportService,
+            ExportService exportService,
+            MeterRegistry meterRegistry,
+            @Value("${REPORT_SPOOL_DIR:${java.io.tmpdir}/trackmymoney-reports}") String spoolDir,
+            @Value("${REPORT_JOB_THREADS:2}") int threads,
+            @Value("${REPORT_JOB_QUEUE_SIZE:50}") int queueSize,
+            @Value("${REPORT_JOB_MAX_PER_USER:3}") int maxPerUser,
+            @Value("${REPORT_JOB_TTL_MINUTES:30}") long ttlMinutes
+    ) {
+        this.reportService = reportService;
+        this.exportService = exportService;
+        this.meterRegistry = meterRegistry;
+        this.spoolDir = Path.of(spoolDir);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.maxPerUser = maxPerUser;
+
+        try {
+            Files.createDirectories(this.spoolDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create report spool directory " + spoolDir, e);
+        }
+        // Jobs don't survive a restart, so neither do their files
+        deleteSpooledFiles(path -> true);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "report-job-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        // Written again on completion, which is when the TTL starts
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new FinishedJobExpiry(ttl))
+                .<String, Job>removalListener((id, job, cause) -> {
+                    if (job != null && cause != RemovalCause.REPLACED) job.deleteFile();
+                })
+                .build();
+
+        Gauge.builder("report.job.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("report.job.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ReportJobStatus submit(CurrentUser user, ReportJobRequest request) {
+        Type type = parseType(request.getType());
+        Job job = new Job(UUID.randomUUID().toString(), user.getId(), type);
+
+        if (type.isExport()) {
+            LocalDate end = request.getEndDate() != null ? request.getEndDate() : LocalDate.now();
+            LocalDate start = request.getStartDate() != null ? request.getStartDate() : end.minusYears(1);
+            if (start.isAfter(end)) {
+                throw new InvalidReportException("startDate must not be after endDate");
+            }
+
+            job.filename = type.label + "_report_" + LocalDate.now() + "." + type.extension;
+            job.renderer = type.extension.equals("csv")
+                    ? out -> exportService.exportCsv(type.label, start, end, user.getId(), out)
+                    : out -> exportService.exportPdf(type.label, start, end, user.getId(), out);
+        } else {
+            if (request.getYear() == null || request.getMonth() == null) {
+                throw new InvalidReportException("year and month are required for " + request.getType());
+            }
+            int year = request.getYear();
+            String month = request.getMonth();
+            reportService.monthStart(year, month);
+
+            job.filename = type.label + "_" + month + "_" + year + "." + type.extension;
+            job.renderer = switch (type) {
+                case FINANCE_REPORT -> out -> reportService.generateFinanceReport(user, year, month, out);
+                case EXPENSE_REPORT -> out -> reportService.generateExpenseReport(user, year, month, out);
+                case INCOME_REPORT -> out -> reportService.generateIncomeReport(user, year, month, out);
+                default -> out -> reportService.generateBorrowLendReport(user, year, month, out);
+            };
+        }
+
+        if (!reserveSlot(job.userId)) {
+            throw new ServiceBusyException("You already have " + maxPerUser + " reports in progress", 10);
+        }
+
+        jobs.put(job.id, job);
+        try {
+            // The worker runs as the submitting user, so replica routing keeps
+            // a report queued right after an edit on the primary
+            executor.execute(new DelegatingSecurityContextRunnable(() -> run(job), SecurityContextHolder.getContext()));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            releaseSlot(job.userId);
+            throw new ServiceBusyException("Too many reports in progress, please retry shortly", 30);
+        }
+        return job.status(ttl);
+    }
+
+    public ReportJobStatus status(Long userId, String jobId) {
+        return find(userId, jobId).status(ttl);
+    }
+
+    public ReportFile file(Long userId, String jobId) {
+        Job job = find(userId, jobId);
+        if (job.state != State.COMPLETED) {
+            throw new JobNotReadyException(job.state == State.FAILED
+                    ? "Report failed: " + job.error
+                    : "Report is not ready yet (" + job.state + ")");
+        }
+        return new ReportFile(job.file, job.filename, job.type.contentType(), job.size);
+    }
+
+    @Scheduled(fixedDelayString = "${REPORT_SPOOL_CLEANUP_MS:60000}")
+    public void cleanUp() {
+        // Expiry is lazy; this runs it (and the file deletes) even when nobody polls
+        jobs.cleanUp();
+
+        // Anything left behind by a job that is gone, e.g. after a crash mid-delete
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        deleteSpooledFiles(path -> {
+            String name = path.getFileName().toString();
+            String id = name.contains(".") ? name.substring(0, name.indexOf('.')) : name;
+            return jobs.getIfPresent(id) == null && path.toFile().lastModified() < cutoff;
+        });
+    }
+
+    private void run(Job job) {
+        job.start();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Path part = spoolDir.resolve(job.id + ".part");
+        Path done = spoolDir.resolve(job.id + "." + job.type.extension);
+
+        try {
+            try (OutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(part)), job)) {
+                job.renderer.accept(out);
+            }
+            Files.move(part, done, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(done, Files.size(done));
+            logger.info("Report job {} ({}) for user {} wrote {} bytes", job.id, job.type, job.userId, job.size);
+        } catch (Exception e) {
+            logger.error("Report job {} ({}) for user {} failed", job.id, job.type, job.userId, e);
+            deleteQuietly(part);
+            job.fail("Report could not be generated, please retry");
+        } finally {
+            sample.stop(Timer.builder("report.job.duration")
+                    .tag("type", job.type.name().toLowerCase(Locale.ROOT))
+                    .tag("state", job.state.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+            // Start the TTL now that the job is finished, unless it was removed while it ran
+            if (jobs.asMap().replace(job.id, job) == null) {
+                job.deleteFile();
+            }
+            releaseSlot(job.userId);
+        }
+    }
+
+    // Check and take one of the user's slots in a single step, so concurrent submits can't overshoot
+    private boolean reserveSlot(Long userId) {
+        boolean[] reserved = {false};
+        pendingByUser.compute(userId, (id, pending) -> {
+            int count = pending != null ? pending : 0;
+            if (count >= maxPerUser) return pending;
+            reserved[0] = true;
+            return count + 1;
+        });
+        return reserved[0];
+    }
+
+    private void releaseSlot(Long userId) {
+        pendingByUser.computeIfPresent(userId, (id, pending) -> pending > 1 ? pending - 1 : null);
+    }
+
+    private Job find(Long userId, String jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new JobNotFoundException("Report job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private static Type parseType(String type) {
+        try {
+            return Type.valueOf(type.strip().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidReportException("Unknown report type: " + type);
+        }
+    }
+
+    private void deleteSpooledFiles(java.util.function.Predicate<Path> filter) {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(Files::isRegularFile).filter(filter).forEach(ReportJobService::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("Could not clean report spool directory {}: {}", spoolDir, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete spooled report {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static final class Job {
+
+        final String id;
+        final Long userId;
+        final Type type;
+        final Instant createdAt = Instant.now();
+        String filename;
+        Consumer<OutputStream> renderer;
+        volatile State state = State.QUEUED;
+        volatile long bytesWritten;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile Path file;
+        volatile long size;
+        volatile String error;
+
+        Job(String id, Long userId, Type type) {
+            this.id = id;
+            this.userId = userId;
+            this.type = type;
+        }
+
+        void start() {
+            startedAt = Instant.now();
+            state = State.RUNNING;
+        }
+
+        void complete(Path path, long bytes) {
+            file = path;
+            size = bytes;
+            finishedAt = Instant.now();
+            state = State.COMPLETED;
+        }
+
+        void fail(String message) {
+            error = message;
+            finishedAt = Instant.now();
+            state = State.FAILED;
+        }
+
+        void deleteFile() {
+            Path path = file;
+            if (path != null) deleteQuietly(path);
+        }
+
+        ReportJobStatus status(Duration ttl) {
+            boolean ready = state == State.COMPLETED;
+            return new ReportJobStatus(
+                    id, type.name().toLowerCase(Locale.ROOT).replace('_', '-'), state.name(),
+                    ready ? size : bytesWritten, filename,
+                    ready ? "/api/reports/jobs/" + id + "/file" : null,
+                    createdAt, startedAt, finishedAt,
+                    finishedAt != null ? finishedAt.plus(ttl) : null,
+                    error
+            );
+        }
+    }
+
+    // Queued and running jobs never expire; a finished one lasts ttl from finishedAt
+    private static final class FinishedJobExpiry implements Expiry<String, Job> {
+
+        private final Duration ttl;
+
+        FinishedJobExpiry(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(String id, Job job, long currentTime) {
+            Instant finishedAt = job.finishedAt;
+            if (finishedAt == null) return Long.MAX_VALUE;
+            Duration left = ttl.minus(Duration.between(finishedAt, Instant.now()));
+            return left.isNegative() ? 0 : left.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, Job job, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, job, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, Job job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // Publishes progress to the job as bytes reach the spool file
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final Job job;
+
+        CountingOutputStream(OutputStream out, Job job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            job.bytesWritten += len;
+        }
+    }
+}
@@ -3,236 +3,169 @@ package com.trackmymoney.backend.service;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
-import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
-import com.itextpdf.layout.element.LineSeparator;
-import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
-import com.trackmymoney.backend.entity.*;
+import com.trackmymoney.backend.dto.BorrowingResponse;
+import com.trackmymoney.backend.dto.FinanceSummary;
+import com.trackmymoney.backend.dto.LendingResponse;
+import com.trackmymoney.backend.exception.InvalidReportException;
 import com.trackmymoney.backend.repository.*;
+import com.trackmymoney.backend.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.Month;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 @Service
 public class ReportService {
 
-    @Autowired private IncomeRepository incomeRepository;
-    @Autowired private ExpenseRepository expenseRepository;
     @Autowired private BorrowingRepository borrowingRepository;
     @Autowired private LendingRepository lendingRepository;
+    @Autowired private SummaryRepository summaryRepository;
+    @Autowired private ExportRepository exportRepository;
+
+    @Value("${PDF_TABLE_FLUSH_ROWS:100}")
+    private int flushRows;
 
     // --- Report 1: Finance Summary ---
-    public byte[] generateFinanceReport(User user, int year, String monthStr) {
-        LocalDate start = getStartDate(year, monthStr);
+    @Transactional(readOnly = true)
+    public void generateFinanceReport(CurrentUser currentUser, int year, String monthStr, OutputStream out) {
+        Long userId = currentUser.getId();
+        LocalDate start = monthStart(year, monthStr);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
 
-        List<Income> incomes = incomeRepository.findByUserAndIncomeDateBetween(user, start, end);
-        List<Expense> expenses = expenseRepository.findByUserAndExpenseDateBetween(user, start, end);
-        List<Borrowing> borrowings = borrowingRepository.findByUserAndDueDateBetween(user, start, end);
-        List<Lending> lendings = lendingRepository.findByUserAndDueDateBetween(user, start, end);
-
-        BigDecimal totalIncome = incomes.stream().map(Income::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalExpense = expenses.stream().map(Expense::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalBorrowed = borrowings.stream().map(Borrowing::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalLent = lendings.stream().map(Lending::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Totals only; no need to load the month's rows
+        FinanceSummary totals = summaryRepository.financeTotals(userId, start, end);
 
-        return createPdf(doc -> {
-            addTitle(doc, "Finance Summary Report", monthStr, year, user);
+        createPdf(out, (doc, template) -> {
+            template.addHeader("Finance Summary Report", monthStr, year, currentUser);
             
             Table table = new Table(UnitValue.createPercentArray(new float[]{70, 30})).useAllAvailableWidth();
-            addHeaderCell(table, "Type", "Amount");
+            template.addHeaderCells(table, "Type", "Amount");
             
-            addRow(table, "Total Income", totalIncome);
-            addRow(table, "Total Expenses", totalExpense);
-            addRow(table, "Total Borrowed (Due this month)", totalBorrowed);
-            addRow(table, "Total Lent (Due this month)", totalLent);
+            table.addCell(template.textCell("Total Income")).addCell(template.moneyCell(totals.totalIncome()));
+            table.addCell(template.textCell("Total Expenses")).addCell(template.moneyCell(totals.totalExpense()));
+            table.addCell(template.textCell("Total Borrowed (Due this month)")).addCell(template.moneyCell(totals.borrowedDue()));
+            table.addCell(template.textCell("Total Lent (Due this month)")).addCell(template.moneyCell(totals.lentDue()));
             
             doc.add(table);
         });
     }
 
     // --- Report 2: Expenses ---
-    public byte[] generateExpenseReport(User user, int year, String monthStr) {
-        LocalDate start = getStartDate(year, monthStr);
+    @Transactional(readOnly = true)
+    public void generateExpenseReport(CurrentUser currentUser, int year, String monthStr, OutputStream out) {
+        Long userId = currentUser.getId();
+        LocalDate start = monthStart(year, monthStr);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
-        
-        List<Expense> expenses = expenseRepository.findByUserAndExpenseDateBetween(user, start, end);
-
-        return createPdf(doc -> {
-            addTitle(doc, "Expense Report", monthStr, year, user);
-            Table table = new Table(UnitValue.createPercentArray(new float[]{20, 40, 20, 20})).useAllAvailableWidth();
-            addHeaderCell(table, "Date", "Description", "Category", "Amount");
-
-            if (expenses.isEmpty()) {
-                addEmptyRow(table, 4);
-            } else {
-                for (Expense e : expenses) {
-                    table.addCell(new Cell().add(new Paragraph(formatDate(e.getExpenseDate()))).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(e.getDescription() != null ? e.getDescription() : "-")).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(e.getCategory())).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(formatMoney(e.getAmount())))
-                            .setTextAlignment(TextAlignment.RIGHT).setPadding(5));
-                }
+
+        createPdf(out, (doc, template) -> {
+            template.addHeader("Expense Report", monthStr, year, currentUser);
+            Table table = new Table(UnitValue.createPercentArray(new float[]{20, 40, 20, 20}), true).useAllAvailableWidth();
+            template.addHeaderCells(table, "Date", "Description", "Category", "Amount");
+
+            // Columns: id, expense_date, category, description, amount
+            try (StreamingPdfTable rows = new StreamingPdfTable(doc, table, flushRows)) {
+                exportRepository.streamExpenses(userId, start, end, rs -> rows.addRow(
+                        template.dateCell(rs.getObject(2, LocalDate.class)),
+                        template.textCell(rs.getString(4) != null ? rs.getString(4) : "-"),
+                        template.textCell(rs.getString(3)),
+                        template.moneyCell(rs.getBigDecimal(5))
+                ));
+                if (rows.rows() == 0) rows.addRow(template.emptyRow(4));
             }
-            doc.add(table);
         });
     }
 
     // --- Report 3: Income ---
-    public byte[] generateIncomeReport(User user, int year, String monthStr) {
-        LocalDate start = getStartDate(year, monthStr);
+    @Transactional(readOnly = true)
+    public void generateIncomeReport(CurrentUser currentUser, int year, String monthStr, OutputStream out) {
+        Long userId = currentUser.getId();
+        LocalDate start = monthStart(year, monthStr);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
-        
-        List<Income> incomes = incomeRepository.findByUserAndIncomeDateBetween(user, start, end);
-
-        return createPdf(doc -> {
-            addTitle(doc, "Income Report", monthStr, year, user);
-            Table table = new Table(UnitValue.createPercentArray(new float[]{25, 50, 25})).useAllAvailableWidth();
-            addHeaderCell(table, "Date", "Source", "Amount");
-
-            if (incomes.isEmpty()) {
-                addEmptyRow(table, 3);
-            } else {
-                for (Income i : incomes) {
-                    table.addCell(new Cell().add(new Paragraph(formatDate(i.getIncomeDate()))).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(i.getSource())).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(formatMoney(i.getAmount())))
-                            .setTextAlignment(TextAlignment.RIGHT).setPadding(5));
-                }
+
+        createPdf(out, (doc, template) -> {
+            template.addHeader("Income Report", monthStr, year, currentUser);
+            Table table = new Table(UnitValue.createPercentArray(new float[]{25, 50, 25}), true).useAllAvailableWidth();
+            template.addHeaderCells(table, "Date", "Source", "Amount");
+
+            // Columns: id, income_date, source, description, amount
+            try (StreamingPdfTable rows = new StreamingPdfTable(doc, table, flushRows)) {
+                exportRepository.streamIncomes(userId, start, end, rs -> rows.addRow(
+                        template.dateCell(rs.getObject(2, LocalDate.class)),
+                        template.textCell(rs.getString(3)),
+                        template.moneyCell(rs.getBigDecimal(5))
+                ));
+                if (rows.rows() == 0) rows.addRow(template.emptyRow(3));
             }
-            doc.add(table);
         });
     }
 
     // --- Report 4: Borrowing & Lending ---
-    public byte[] generateBorrowLendReport(User user, int year, String monthStr) {
-        LocalDate start = getStartDate(year, monthStr);
+    @Transactional(readOnly = true)
+    public void generateBorrowLendReport(CurrentUser currentUser, int year, String monthStr, OutputStream out) {
+        Long userId = currentUser.getId();
+        LocalDate start = monthStart(year, monthStr);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
 
-        List<Borrowing> borrowings = borrowingRepository.findByUserAndDueDateBetween(user, start, end);
-        List<Lending> lendings = lendingRepository.findByUserAndDueDateBetween(user, start, end);
-
-        return createPdf(doc -> {
-            addTitle(doc, "Borrow & Lend Report", monthStr, year, user);
-            Table table = new Table(UnitValue.createPercentArray(new float[]{30, 20, 25, 25})).useAllAvailableWidth();
-            addHeaderCell(table, "Name", "Type", "Due Date", "Amount");
-
-            if (borrowings.isEmpty() && lendings.isEmpty()) {
-                addEmptyRow(table, 4);
-            } else {
-                for (Borrowing b : borrowings) {
-                    table.addCell(new Cell().add(new Paragraph(b.getName())).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph("Borrowed")).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(formatDate(b.getDueDate()))).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(formatMoney(b.getAmount())))
-                            .setTextAlignment(TextAlignment.RIGHT).setPadding(5));
+        List<BorrowingResponse> borrowings = borrowingRepository.findResponsesBetween(userId, start, end);
+        List<LendingResponse> lendings = lendingRepository.findResponsesBetween(userId, start, end);
+
+        createPdf(out, (doc, template) -> {
+            template.addHeader("Borrow & Lend Report", monthStr, year, currentUser);
+            Table table = new Table(UnitValue.createPercentArray(new float[]{30, 20, 25, 25}), true).useAllAvailableWidth();
+            template.addHeaderCells(table, "Name", "Type", "Due Date", "Amount");
+
+            try (StreamingPdfTable rows = new StreamingPdfTable(doc, table, flushRows)) {
+                for (BorrowingResponse b : borrowings) {
+                    rows.addRow(template.textCell(b.getName()), template.textCell("Borrowed"),
+                            template.dateCell(b.getDueDate()), template.moneyCell(b.getAmount()));
                 }
-                for (Lending l : lendings) {
-                    table.addCell(new Cell().add(new Paragraph(l.getName())).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph("Lent")).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(formatDate(l.getDueDate()))).setPadding(5));
-                    table.addCell(new Cell().add(new Paragraph(formatMoney(l.getAmount())))
-                            .setTextAlignment(TextAlignment.RIGHT).setPadding(5));
+                for (LendingResponse l : lendings) {
+                    rows.addRow(template.textCell(l.name()), template.textCell("Lent"),
+                            template.dateCell(l.dueDate()), template.moneyCell(BigDecimal.valueOf(l.amount())));
                 }
+                if (rows.rows() == 0) rows.addRow(template.emptyRow(4));
             }
-            doc.add(table);
         });
     }
 
     // --- Helpers ---
 
-    private LocalDate getStartDate(int year, String monthStr) {
+    /** First day of the named month; throws for an unknown month name. */
+    public LocalDate monthStart(int year, String monthStr) {
         try {
             Month month = Month.valueOf(monthStr.toUpperCase());
             return LocalDate.of(year, month, 1);
         } catch (IllegalArgumentException e) {
             // Fallback if user sends "Jan" instead of "JANUARY"
             // You might want to handle this more robustly or ensure frontend sends full names
-            throw new RuntimeException("Invalid month: " + monthStr);
+            throw new InvalidReportException("Invalid month: " + monthStr);
         }
     }
 
-    private String formatDate(LocalDate date) {
-        return date.format(DateTimeFormatter.ofPattern("dd MMM yyyy"));
-    }
-
-    private String formatMoney(BigDecimal amount) {
-        return "Rs. " + String.format("%,.2f", amount);
-    }
-
-    private byte[] createPdf(java.util.function.Consumer<Document> contentGenerator) {
-        try (ByteArrayOutputStream pdfStream = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(pdfStream);
+    // Pages are written to out as soon as they are laid out; out is left open
+    private void createPdf(OutputStream out, BiConsumer<Document, ReportTemplate> contentGenerator) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf);
-            contentGenerator.accept(document);
-            
-            // Add Footer - Explicitly using Asia/Kolkata (IST) as the user is in India
-            String timestamp = ZonedDateTime.now(ZoneId.of("Asia/Kolkata"))
-                    .format(DateTimeFormatter.ofPattern("dd MMM yyyy 'at' hh:mm a"));
-            document.add(new Paragraph("\nGenerated by TrackMyMoney on " + timestamp)
-                .setFontSize(9).setItalic().setOpacity(0.6f).setTextAlignment(TextAlignment.CENTER));
-            
+            ReportTemplate template = new ReportTemplate(document);
+
+            contentGenerator.accept(document, template);
+            template.addFooter();
+
             document.close();
-            return pdfStream.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF", e);
         }
     }
-
-    private void addTitle(Document doc, String title, String month, int year, User user) {
-        DeviceRgb indigo = new DeviceRgb(79, 70, 229);
-        
-        // Header Table for Brand and User Info
-        Table headerTable = new Table(UnitValue.createPercentArray(new float[]{60, 40})).useAllAvailableWidth();
-        headerTable.setBorder(com.itextpdf.layout.borders.Border.NO_BORDER);
-        
-        Cell brandCell = new Cell().add(new Paragraph("TrackMyMoney").setBold().setFontSize(24).setFontColor(indigo))
-                .setBorder(com.itextpdf.layout.borders.Border.NO_BORDER);
-        headerTable.addCell(brandCell);
-        
-        Cell userCell = new Cell().add(new Paragraph("Prepared for:\n" + user.getName() + "\n" + user.getEmail())
-                .setFontSize(9).setTextAlignment(TextAlignment.RIGHT).setItalic().setOpacity(0.8f))
-                .setBorder(com.itextpdf.layout.borders.Border.NO_BORDER);
-        headerTable.addCell(userCell);
-        
-        doc.add(headerTable);
-        doc.add(new LineSeparator(new SolidLine(1f)).setMarginBottom(15).setOpacity(0.3f));
-        
-        doc.add(new Paragraph(title).setBold().setFontSize(18).setMarginBottom(2));
-        doc.add(new Paragraph("Financial Statement: " + month + " " + year).setFontSize(11).setItalic().setMarginBottom(20));
-    }
-
-    private void addHeaderCell(Table table, String... headers) {
-        DeviceRgb indigo = new DeviceRgb(79, 70, 229);
-        for (String header : headers) {
-            table.addCell(new Cell().add(new Paragraph(header).setBold().setFontColor(new DeviceRgb(255, 255, 255)))
-                .setBackgroundColor(indigo)
-                .setPadding(8));
-        }
-    }
-
-    private void addRow(Table table, String label, BigDecimal amount) {
-        table.addCell(new Cell().add(new Paragraph(label)).setPadding(5));
-        table.addCell(new Cell().add(new Paragraph(formatMoney(amount)))
-            .setTextAlignment(TextAlignment.RIGHT).setPadding(5));
-    }
-    
-    private void addEmptyRow(Table table, int cols) {
-        table.addCell(new Cell().add(new Paragraph("No Data")));
-        for(int i=1; i<cols; i++) table.addCell(new Cell().add(new Paragraph("-")));
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+package com.trackmymoney.backend.service;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.LineSeparator;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.trackmymoney.backend.security.CurrentUser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Branding and cell styling shared by the PDF reports. Colours and
+ * formatters are built once per process, and so is the content of the
+ * TrackMyMoney wordmark. Fonts and form XObjects belong to a PdfDocument, so
+ * each report makes one ReportTemplate and every cell reuses its fonts
+ * instead of asking for simulated bold or italic.
+ */
+public final class ReportTemplate {
+
+    public static final DeviceRgb INDIGO = new DeviceRgb(79, 70, 229);
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("dd MMM yyyy 'at' hh:mm a");
+    // The footer is explicitly in Asia/Kolkata (IST) as the users are in India
+    private static final ZoneId REPORT_ZONE = ZoneId.of("Asia/Kolkata");
+
+    private final Document document;
+    private final PdfFont bold;
+    private final PdfFont italic;
+
+    public ReportTemplate(Document document) {
+        this.document = document;
+        try {
+            document.setFont(PdfFontFactory.createFont(StandardFonts.HELVETICA));
+            this.bold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            this.italic = PdfFontFactory.createFont(StandardFonts.HELVETICA_OBLIQUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Standard PDF fonts unavailable", e);
+        }
+    }
+
+    // ==================== PAGE ELEMENTS ====================
+
+    public void addHeader(String title, String month, int year, CurrentUser user) {
+        Table headerTable = new Table(UnitValue.createPercentArray(new float[]{60, 40})).useAllAvailableWidth();
+        headerTable.setBorder(Border.NO_BORDER);
+
+        headerTable.addCell(new Cell().add(new Image(brandMark(document.getPdfDocument())))
+                .setBorder(Border.NO_BORDER));
+        headerTable.addCell(new Cell().add(new Paragraph("Prepared for:\n" + user.getName() + "\n" + user.getEmail())
+                        .setFont(italic).setFontSize(9).setTextAlignment(TextAlignment.RIGHT).setOpacity(0.8f))
+                .setBorder(Border.NO_BORDER));
+
+        document.add(headerTable);
+        document.add(new LineSeparator(new SolidLine(1f)).setMarginBottom(15).setOpacity(0.3f));
+
+        document.add(new Paragraph(title).setFont(bold).setFontSize(18).setMarginBottom(2));
+        document.add(new Paragraph("Financial Statement: " + month + " " + year)
+                .setFont(italic).setFontSize(11).setMarginBottom(20));
+    }
+
+    public void addFooter() {
+        String timestamp = ZonedDateTime.now(REPORT_ZONE).format(TIMESTAMP);
+        document.add(new Paragraph("\nGenerated by TrackMyMoney on " + timestamp)
+                .setFont(italic).setFontSize(9).setOpacity(0.6f).setTextAlignment(TextAlignment.CENTER));
+    }
+
+    // ==================== CELLS ====================
+
+    public void addHeaderCells(Table table, String... headers) {
+        for (String header : headers) {
+            table.addCell(new Cell().add(new Paragraph(header).setFont(bold).setFontColor(ColorConstants.WHITE))
+                    .setBackgroundColor(INDIGO)
+                    .setPadding(8));
+        }
+    }
+
+    public Cell textCell(String text) {
+        return new Cell().add(new Paragraph(text)).setPadding(5);
+    }
+
+    public Cell dateCell(LocalDate date) {
+        return textCell(formatDate(date));
+    }
+
+    public Cell moneyCell(BigDecimal amount) {
+        return new Cell().add(new Paragraph(formatMoney(amount)))
+                .setTextAlignment(TextAlignment.RIGHT).setPadding(5);
+    }
+
+    public Cell[] emptyRow(int cols) {
+        Cell[] cells = new Cell[cols];
+        cells[0] = new Cell().add(new Paragraph("No Data"));
+        for (int i = 1; i < cols; i++) cells[i] = new Cell().add(new Paragraph("-"));
+        return cells;
+    }
+
+    // ==================== FORMATTING ====================
+
+    public static String formatDate(LocalDate date) {
+        return date.format(DATE);
+    }
+
+    /**
+     * "Rs. 1,234,567.89", as String.format("%,.2f") prints it in English
+     * locales, without parsing a format string for every cell.
+     */
+    public static String formatMoney(BigDecimal amount) {
+        BigDecimal rounded = (amount != null ? amount : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+        if (rounded.precision() > 18) {
+            return "Rs. " + String.format("%,.2f", rounded);
+        }
+
+        long cents = rounded.unscaledValue().longValue();
+        StringBuilder text = new StringBuilder(24).append("Rs. ");
+        if (cents < 0) {
+            text.append('-');
+            cents = -cents;
+        }
+
+        String whole = Long.toString(cents / 100);
+        int group = whole.length() % 3 == 0 ? 3 : whole.length() % 3;
+        text.append(whole, 0, group);
+        for (int i = group; i < whole.length(); i += 3) {
+            text.append(',').append(whole, i, i + 3);
+        }
+
+        int fraction = (int) (cents % 100);
+        return text.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10)).toString();
+    }
+
+    // ==================== BRANDING ====================
+
+    // The recorded content names its font F1; a fresh resource dictionary hands out the same name
+    private PdfFormXObject brandMark(PdfDocument pdf) {
+        PdfFormXObject form = new PdfFormXObject(BrandMark.BOX);
+        PdfName fontName = form.getResources().addFont(pdf, bold);
+
+        if (fontName.equals(BrandMark.FONT_NAME)) {
+            form.getPdfObject().setData(BrandMark.CONTENT);
+        } else {
+            BrandMark.draw(new PdfCanvas(form, pdf), bold);
+        }
+        return form;
+    }
+
+    /** The wordmark's content stream, drawn once against a scratch document. */
+    private static final class BrandMark {
+
+        private static final String TEXT = "TrackMyMoney";
+        private static final float SIZE = 24;
+
+        static final Rectangle BOX;
+        static final PdfName FONT_NAME;
+        static final byte[] CONTENT;
+
+        static {
+            try (PdfDocument scratch = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()))) {
+                scratch.addNewPage();
+                PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+
+                BOX = new Rectangle(font.getWidth(TEXT, SIZE),
+                        font.getAscent(TEXT, SIZE) - font.getDescent(TEXT, SIZE));
+                PdfFormXObject form = new PdfFormXObject(BOX);
+                draw(new PdfCanvas(form, scratch), font);
+
+                FONT_NAME = form.getResources().getResourceNames().iterator().next();
+                CONTENT = form.getPdfObject().getBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Standard PDF fonts unavailable", e);
+            }
+        }
+
+        static void draw(PdfCanvas canvas, PdfFont font) {
+            canvas.beginText()
+                    .setFontAndSize(font, SIZE)
+                    .setFillColor(INDIGO)
+                    .moveText(0, -font.getDescent(TEXT, SIZE))
+                    .showText(TEXT)
+                    .endText()
+                    .release();
+        }
+    }
+}
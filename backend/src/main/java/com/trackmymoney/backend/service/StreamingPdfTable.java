@@ -0,0 +1,45 @@
+package com.trackmymoney.backend.service;
+
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Table;
+
+/**
+ * An iText large table that is laid out and written every flushRows rows
+ * instead of once at the end, so only the current chunk of cells is ever in
+ * memory. Create the Table with largeTable = true and add its header cells
+ * first; rows then go through addRow, and close() completes the table.
+ */
+public class StreamingPdfTable implements AutoCloseable {
+
+    private final Table table;
+    private final int flushRows;
+    private long rows;
+
+    public StreamingPdfTable(Document document, Table table, int flushRows) {
+        if (table.isComplete()) {
+            throw new IllegalArgumentException("Expected a table created with largeTable = true");
+        }
+        this.table = table;
+        this.flushRows = Math.max(1, flushRows);
+        document.add(table);
+    }
+
+    public void addRow(Cell... cells) {
+        for (Cell cell : cells) {
+            table.addCell(cell);
+        }
+        if (++rows % flushRows == 0) {
+            table.flush();
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() {
+        table.complete();
+    }
+}
@@ -0,0 +1,136 @@
+package com.trackmymoney.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trackmymoney.backend.dto.DashboardSummaryDTO;
+import com.trackmymoney.backend.dto.MonthlySummaryResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-limited cache of dashboard and monthly summary results keyed
+ * by user and period. Writers evict what they touched: an income/expense
+ * change only its month, year and the all-time dashboard; a borrowing/
+ * lending change everything of that user, since open balances appear in
+ * every summary. Overdue figures age with the clock, so the TTL stays short.
+ * Keys carry a per-user generation; dropping a user's entries starts a new
+ * generation instead of scanning the cache, and the orphaned entries age
+ * out through the TTL and size bound.
+ * Every eviction also bumps the user's UserDataVersions entry, which keys
+ * the rendered report cache.
+ * Metrics are published as "cache.*" with cache=summaries, plus
+ * summary.cache.hit.ratio and summary.cache.invalidations.
+ */
+@Component
+public class SummaryCache {
+
+    private enum Kind { DASHBOARD, MONTHLY }
+
+    // year/month null = all time (dashboard only)
+    private record Key(Long userId, long generation, Kind kind, Integer year, Integer month) {
+    }
+
+    private final Cache<Key, Object> cache;
+    // One global sequence, as in UserDataVersions, so a generation evicted
+    // from this table and handed out again never matches an old key
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<Long, Long> generations;
+    private final Counter invalidations;
+    private final UserDataVersions dataVersions;
+
+    public SummaryCache(
+            @Value("${SUMMARY_CACHE_TTL_SECONDS:300}") long ttlSeconds,
+            @Value("${SUMMARY_CACHE_MAX_SIZE:10000}") long maxSize,
+            @Value("${USER_DATA_VERSIONS_MAX_SIZE:100000}") long generationsMaxSize,
+            MeterRegistry meterRegistry,
+            UserDataVersions dataVersions
+    ) {
+        this.dataVersions = dataVersions;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(generationsMaxSize)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "summaries");
+        Gauge.builder("summary.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("summary.cache.invalidations").register(meterRegistry);
+    }
+
+    public DashboardSummaryDTO dashboard(Long userId, Integer year, Integer month,
+                                         Supplier<DashboardSummaryDTO> loader) {
+        return (DashboardSummaryDTO) cache.get(key(userId, Kind.DASHBOARD, year, month), k -> loader.get());
+    }
+
+    public MonthlySummaryResponse monthly(Long userId, int year, int month,
+                                          Supplier<MonthlySummaryResponse> loader) {
+        return (MonthlySummaryResponse) cache.get(key(userId, Kind.MONTHLY, year, month), k -> loader.get());
+    }
+
+    /** An income or expense dated in these months changed. Null dates are ignored. */
+    public void evictMonths(Long userId, LocalDate... dates) {
+        evict(userId, () -> {
+            List<Key> keys = new ArrayList<>();
+            keys.add(key(userId, Kind.DASHBOARD, null, null));
+
+            for (LocalDate date : dates) {
+                if (date == null) continue;
+                keys.add(key(userId, Kind.DASHBOARD, date.getYear(), null));
+                keys.add(key(userId, Kind.DASHBOARD, date.getYear(), date.getMonthValue()));
+                keys.add(key(userId, Kind.MONTHLY, date.getYear(), date.getMonthValue()));
+            }
+            cache.invalidateAll(keys);
+        });
+    }
+
+    /** Open balances or bulk data changed: drop every entry of this user. */
+    public void evictUser(Long userId) {
+        evict(userId, () -> generations.put(userId, sequence.incrementAndGet()));
+    }
+
+    private Key key(Long userId, Kind kind, Integer year, Integer month) {
+        long generation = generations.get(userId, id -> sequence.incrementAndGet());
+        return new Key(userId, generation, kind, year, month);
+    }
+
+    /**
+     * Runs now and, inside a transaction, again after commit so a concurrent
+     * read cannot re-cache totals (or a report) from before the write.
+     */
+    private void evict(Long userId, Runnable invalidation) {
+        Runnable evictAndBump = () -> {
+            invalidation.run();
+            dataVersions.bump(userId);
+        };
+        evictAndBump.run();
+        invalidations.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            evictAndBump.run();
+                        }
+                    }
+            );
+        }
+    }
+}
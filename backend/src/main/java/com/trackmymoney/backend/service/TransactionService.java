@@ -1,5 +1,6 @@
 package com.trackmymoney.backend.service;
 
+import com.trackmymoney.backend.dto.BulkSettleRequest;
 import com.trackmymoney.backend.dto.CreateTransactionRequest;
 import com.trackmymoney.backend.dto.TransactionResponse;
 import com.trackmymoney.backend.entity.TransactionType;
@@ -15,4 +16,6 @@ public interface TransactionService {
     List<TransactionResponse> getUnsettledTransactions();
 
     TransactionResponse settleTransaction(Long transactionId);
+
+    int settleTransactions(BulkSettleRequest request);
 }
@@ -0,0 +1,35 @@
+package com.trackmymoney.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A number that changes whenever any of a user's financial data changes;
+ * bumped by SummaryCache on every write it is told about. Values come from
+ * one global sequence, so a user evicted from the table and seen again gets
+ * a version never handed out before, and stale keys built on it stay stale.
+ */
+@Component
+public class UserDataVersions {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<Long, Long> versions;
+
+    public UserDataVersions(@Value("${USER_DATA_VERSIONS_MAX_SIZE:100000}") long maxSize) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public long current(Long userId) {
+        return versions.get(userId, id -> sequence.incrementAndGet());
+    }
+
+    public void bump(Long userId) {
+        versions.put(userId, sequence.incrementAndGet());
+    }
+}
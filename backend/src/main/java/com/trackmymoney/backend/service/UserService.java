@@ -1,7 +1,9 @@
 package com.trackmymoney.backend.service;
 
+import com.trackmymoney.backend.dto.AccountResetStatus;
 import com.trackmymoney.backend.dto.CreateUserRequest;
 import com.trackmymoney.backend.dto.UserResponse;
+import com.trackmymoney.backend.security.CurrentUser;
 
 public interface UserService {
 
@@ -17,5 +19,7 @@ public interface UserService {
 
     void changePassword(String email, String oldPassword, String newPassword);
 
-    void resetAccount(String email);
+    AccountResetStatus resetAccount(CurrentUser user);
+
+    AccountResetStatus getResetStatus(Long userId, String jobId);
 }
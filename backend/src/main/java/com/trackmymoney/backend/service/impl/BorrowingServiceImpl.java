@@ -2,38 +2,60 @@ package com.trackmymoney.backend.service.impl;
 
 import com.trackmymoney.backend.dto.BorrowingResponse;
 import com.trackmymoney.backend.dto.BorrowingRequest;
+import com.trackmymoney.backend.dto.BulkSettleRequest;
+import com.trackmymoney.backend.dto.CursorPage;
+import com.trackmymoney.backend.dto.PageCursor;
 import com.trackmymoney.backend.entity.Borrowing;
 import com.trackmymoney.backend.entity.User;
+import com.trackmymoney.backend.exception.PreconditionFailedException;
+import com.trackmymoney.backend.exception.ResourceNotFoundException;
 import com.trackmymoney.backend.repository.BorrowingRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository.Replaced;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository.Measure;
 import com.trackmymoney.backend.repository.UserRepository;
 import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.BorrowingService;
+import com.trackmymoney.backend.service.SummaryCache;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class BorrowingServiceImpl implements BorrowingService {
 
     private final BorrowingRepository borrowingRepository;
     private final UserRepository userRepository;
+    private final MonthlyRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+    private final VersionedUpdateRepository versionedUpdates;
 
     public BorrowingServiceImpl(
             BorrowingRepository borrowingRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            MonthlyRollupRepository rollupRepository,
+            SummaryCache summaryCache,
+            VersionedUpdateRepository versionedUpdates
     ) {
         this.borrowingRepository = borrowingRepository;
         this.userRepository = userRepository;
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
+        this.versionedUpdates = versionedUpdates;
     }
 
     private User getUser() {
-        return userRepository
-                .findByEmail(SecurityUtils.getCurrentUserEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Reference proxy only: the principal already carries the id
+        return userRepository.getReferenceById(SecurityUtils.getCurrentUserId());
     }
 
     @Override
+    @Transactional
     public BorrowingResponse add(BorrowingRequest r) {
         Borrowing b = new Borrowing();
         b.setName(r.getName());
@@ -43,49 +65,110 @@ public class BorrowingServiceImpl implements BorrowingService {
         b.setSettled(false);
         b.setUser(getUser());
 
-        return map(borrowingRepository.save(b));
+        Borrowing saved = borrowingRepository.save(b);
+        rollupRepository.add(SecurityUtils.getCurrentUserId(), Measure.BORROWED,
+                saved.getBorrowDate(), null, saved.getAmount());
+        summaryCache.evictUser(SecurityUtils.getCurrentUserId());
+        return map(saved);
     }
 
     @Override
-    public BorrowingResponse update(Long id, BorrowingRequest r) {
+    @Transactional
+    public BorrowingResponse update(Long id, BorrowingRequest r, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long userId = SecurityUtils.getCurrentUserId();
+            Replaced before = versionedUpdates.updateBorrowing(
+                    id, userId, expectedVersion,
+                    r.getName(), r.getAmount(), r.getBorrowDate(), r.getDueDate()
+            ).orElseThrow(() -> borrowingRepository.existsByIdAndUserId(id, userId)
+                    ? new PreconditionFailedException("borrowing", "Borrowing was changed by another request")
+                    : new ResourceNotFoundException("Borrowing not found"));
+
+            rollupRepository.replace(userId, Measure.BORROWED,
+                    before.date(), null, before.amount(),
+                    r.getBorrowDate(), null, r.getAmount());
+            summaryCache.evictUser(userId);
+            return new BorrowingResponse(id, r.getName(), r.getAmount(),
+                    r.getBorrowDate(), r.getDueDate(), before.settled(), before.version());
+        }
+
         Borrowing b = borrowingRepository
                 .findByIdAndUser(id, getUser())
                 .orElseThrow(() -> new RuntimeException("Borrowing not found"));
 
+        LocalDate oldDate = b.getBorrowDate();
+        BigDecimal oldAmount = b.getAmount();
+
         b.setName(r.getName());
         b.setAmount(r.getAmount());
         b.setBorrowDate(r.getBorrowDate());
         b.setDueDate(r.getDueDate());
 
-        return map(borrowingRepository.save(b));
+        Borrowing saved = borrowingRepository.save(b);
+        rollupRepository.replace(SecurityUtils.getCurrentUserId(), Measure.BORROWED,
+                oldDate, null, oldAmount,
+                saved.getBorrowDate(), null, saved.getAmount());
+        summaryCache.evictUser(SecurityUtils.getCurrentUserId());
+        return map(saved);
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         Borrowing b = borrowingRepository
                 .findByIdAndUser(id, getUser())
                 .orElseThrow(() -> new RuntimeException("Borrowing not found"));
 
         borrowingRepository.delete(b);
+        rollupRepository.remove(SecurityUtils.getCurrentUserId(), Measure.BORROWED,
+                b.getBorrowDate(), null, b.getAmount());
+        summaryCache.evictUser(SecurityUtils.getCurrentUserId());
     }
 
     @Override
     public void settle(Long id) {
-        Borrowing b = borrowingRepository
-                .findByIdAndUser(id, getUser())
-                .orElseThrow(() -> new RuntimeException("Borrowing not found"));
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (borrowingRepository.settle(id, userId) == 0) {
+            throw new ResourceNotFoundException("Borrowing not found");
+        }
+        summaryCache.evictUser(userId);
+    }
 
-        b.setSettled(true);
-        borrowingRepository.save(b);
+    @Override
+    public int settleAll(BulkSettleRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        int settled = request.getIds() != null && !request.getIds().isEmpty()
+                ? borrowingRepository.settleAll(userId, request.getIds())
+                : borrowingRepository.settleAllFor(userId, request.getCounterparty().strip());
+
+        if (settled > 0) {
+            summaryCache.evictUser(userId);
+        }
+        return settled;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BorrowingResponse> getAll() {
-        return borrowingRepository
-                .findByUser(getUser())
-                .stream()
-                .map(this::map)
-                .collect(Collectors.toList());
+        return borrowingRepository.findResponses(SecurityUtils.getCurrentUserId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingResponse> getPage(String cursor, int limit) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<BorrowingResponse> rows = after == null
+                ? borrowingRepository.findPage(userId, fetch)
+                : borrowingRepository.findPageAfter(userId, after.date(), after.id(), fetch);
+
+        return CursorPage.of(
+                rows,
+                limit,
+                b -> new PageCursor(b.getBorrowDate(), b.getId())
+        );
     }
 
     private BorrowingResponse map(Borrowing b) {
@@ -95,7 +178,8 @@ public class BorrowingServiceImpl implements BorrowingService {
                 b.getAmount(),
                 b.getBorrowDate(),
                 b.getDueDate(),
-                b.isSettled()
+                b.isSettled(),
+                b.getVersion()
         );
     }
 }
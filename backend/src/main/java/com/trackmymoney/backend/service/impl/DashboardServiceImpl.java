@@ -1,71 +1,44 @@
 package com.trackmymoney.backend.service.impl;
 
-import com.trackmymoney.backend.entity.Borrowing;
-import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.repository.BorrowingRepository;
-import com.trackmymoney.backend.repository.ExpenseRepository;
-import com.trackmymoney.backend.repository.IncomeRepository;
-import com.trackmymoney.backend.repository.LendingRepository;
+import com.trackmymoney.backend.dto.DashboardSummaryDTO;
+import com.trackmymoney.backend.repository.SummaryRepository;
 import com.trackmymoney.backend.service.DashboardService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.trackmymoney.backend.service.SummaryCache;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
-    @Autowired private IncomeRepository incomeRepository;
-    @Autowired private ExpenseRepository expenseRepository;
-    @Autowired private BorrowingRepository borrowingRepository;
-    @Autowired private LendingRepository lendingRepository;
+    private final SummaryRepository summaryRepository;
+    private final SummaryCache summaryCache;
 
-    @Override
-    public Map<String, Double> getDashboardStats(User user, Integer year, String monthStr) {
-        
-        LocalDate today = LocalDate.now();
-
-        // 1. Fetch Totals
-        BigDecimal totalIncome = incomeRepository.sumByUserId(user.getId());
-        BigDecimal totalExpense = expenseRepository.sumByUserId(user.getId());
-        BigDecimal totalBorrowed = borrowingRepository.sumOfUnsettledBorrowingsByUserId(user.getId());
-        BigDecimal totalLent = lendingRepository.sumOfUnsettledLendingsByUserId(user.getId());
-        
-        // 2. Fetch Overdue (Make sure Repositories use <= :today)
-        BigDecimal totalOverdueBorrowed = borrowingRepository.sumOverdueByUserId(user.getId(), today);
-        BigDecimal totalOverdueLent = lendingRepository.sumOverdueByUserId(user.getId(), today);
-
-        // 3. Null Checks
-        totalIncome = (totalIncome == null) ? BigDecimal.ZERO : totalIncome;
-        totalExpense = (totalExpense == null) ? BigDecimal.ZERO : totalExpense;
-        totalBorrowed = (totalBorrowed == null) ? BigDecimal.ZERO : totalBorrowed;
-        totalLent = (totalLent == null) ? BigDecimal.ZERO : totalLent;
-        totalOverdueBorrowed = (totalOverdueBorrowed == null) ? BigDecimal.ZERO : totalOverdueBorrowed;
-        totalOverdueLent = (totalOverdueLent == null) ? BigDecimal.ZERO : totalOverdueLent;
+    public DashboardServiceImpl(SummaryRepository summaryRepository, SummaryCache summaryCache) {
+        this.summaryRepository = summaryRepository;
+        this.summaryCache = summaryCache;
+    }
 
-        BigDecimal balance = totalIncome.subtract(totalExpense);
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardSummaryDTO getDashboardStats(Long userId, Integer year, Integer month) {
 
-        // 4. Prepare Map
-        Map<String, Double> stats = new HashMap<>();
+        LocalDate today = LocalDate.now();
 
-        stats.put("totalIncome", totalIncome.doubleValue());
-        stats.put("totalExpense", totalExpense.doubleValue());
-        stats.put("totalExpenses", totalExpense.doubleValue());
-        stats.put("balance", balance.doubleValue());
-        stats.put("availableBalance", balance.doubleValue());
-        stats.put("totalBorrowed", totalBorrowed.doubleValue());
-        stats.put("totalLent", totalLent.doubleValue());
+        // No year and no month: all-time totals. Month alone means this year's month.
+        if (year == null && month == null) {
+            return summaryCache.dashboard(userId, null, null,
+                    () -> summaryRepository.dashboardTotals(userId, null, null, today));
+        }
 
-        // Overdue Keys
-        stats.put("overdueBorrowed", totalOverdueBorrowed.doubleValue());
-        stats.put("totalOverdueBorrowed", totalOverdueBorrowed.doubleValue());
-        stats.put("overdueLent", totalOverdueLent.doubleValue());
-        stats.put("totalOverdueLent", totalOverdueLent.doubleValue());
+        int y = year != null ? year : today.getYear();
+        LocalDate start = month != null ? LocalDate.of(y, month, 1) : LocalDate.of(y, 1, 1);
+        LocalDate end = month != null
+                ? start.withDayOfMonth(start.lengthOfMonth())
+                : LocalDate.of(y, 12, 31);
 
-        return stats;
+        return summaryCache.dashboard(userId, y, month,
+                () -> summaryRepository.dashboardTotals(userId, start, end, today));
     }
-}
\ No newline at end of file
+}
@@ -1,35 +1,54 @@
 package com.trackmymoney.backend.service.impl;
 
 import com.trackmymoney.backend.dto.CreateExpenseRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.ExpenseResponse;
+import com.trackmymoney.backend.dto.PageCursor;
 import com.trackmymoney.backend.entity.Expense;
 import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.exception.UserNotFoundException;
+import com.trackmymoney.backend.exception.PreconditionFailedException;
+import com.trackmymoney.backend.exception.ResourceNotFoundException;
 import com.trackmymoney.backend.repository.ExpenseRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository.Measure;
 import com.trackmymoney.backend.repository.UserRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository.Replaced;
 import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.ExpenseService;
+import com.trackmymoney.backend.service.SummaryCache;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ExpenseServiceImpl implements ExpenseService {
 
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
+    private final MonthlyRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+    private final VersionedUpdateRepository versionedUpdates;
 
     public ExpenseServiceImpl(
             ExpenseRepository expenseRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            MonthlyRollupRepository rollupRepository,
+            SummaryCache summaryCache,
+            VersionedUpdateRepository versionedUpdates
     ) {
         this.expenseRepository = expenseRepository;
         this.userRepository = userRepository;
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
+        this.versionedUpdates = versionedUpdates;
     }
 
     @Override
+    @Transactional
     public ExpenseResponse addExpense(CreateExpenseRequest request) {
 
         User user = getLoggedInUser();
@@ -41,11 +60,33 @@ public class ExpenseServiceImpl implements ExpenseService {
         expense.setExpenseDate(request.getExpenseDate());
         expense.setUser(user);
 
-        return mapToResponse(expenseRepository.save(expense));
+        ExpenseResponse saved = mapToResponse(expenseRepository.save(expense));
+        rollupRepository.add(SecurityUtils.getCurrentUserId(), Measure.EXPENSE,
+                saved.getExpenseDate(), saved.getCategory(), saved.getAmount());
+        summaryCache.evictMonths(SecurityUtils.getCurrentUserId(), saved.getExpenseDate());
+        return saved;
     }
 
     @Override
-    public ExpenseResponse updateExpense(Long id, CreateExpenseRequest request) {
+    @Transactional
+    public ExpenseResponse updateExpense(Long id, CreateExpenseRequest request, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long userId = SecurityUtils.getCurrentUserId();
+            Replaced before = versionedUpdates.updateExpense(
+                    id, userId, expectedVersion,
+                    request.getAmount(), request.getCategory(),
+                    request.getDescription(), request.getExpenseDate()
+            ).orElseThrow(() -> expenseRepository.existsByIdAndUserId(id, userId)
+                    ? new PreconditionFailedException("expense", "Expense was changed by another request")
+                    : new ResourceNotFoundException("Expense not found"));
+
+            rollupRepository.replace(userId, Measure.EXPENSE,
+                    before.date(), before.category(), before.amount(),
+                    request.getExpenseDate(), request.getCategory(), request.getAmount());
+            summaryCache.evictMonths(userId, before.date(), request.getExpenseDate());
+            return new ExpenseResponse(id, request.getAmount(), request.getCategory(),
+                    request.getDescription(), request.getExpenseDate(), before.version());
+        }
 
         User user = getLoggedInUser();
 
@@ -55,15 +96,23 @@ public class ExpenseServiceImpl implements ExpenseService {
                         new RuntimeException("Expense not found or not authorized")
                 );
 
+        ExpenseResponse before = mapToResponse(expense);
+
         expense.setAmount(request.getAmount());
         expense.setCategory(request.getCategory());
         expense.setDescription(request.getDescription());
         expense.setExpenseDate(request.getExpenseDate());
 
-        return mapToResponse(expenseRepository.save(expense));
+        ExpenseResponse saved = mapToResponse(expenseRepository.save(expense));
+        rollupRepository.replace(SecurityUtils.getCurrentUserId(), Measure.EXPENSE,
+                before.getExpenseDate(), before.getCategory(), before.getAmount(),
+                saved.getExpenseDate(), saved.getCategory(), saved.getAmount());
+        summaryCache.evictMonths(SecurityUtils.getCurrentUserId(), before.getExpenseDate(), saved.getExpenseDate());
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteExpense(Long id) {
 
         User user = getLoggedInUser();
@@ -75,45 +124,54 @@ public class ExpenseServiceImpl implements ExpenseService {
                 );
 
         expenseRepository.delete(expense);
+        rollupRepository.remove(SecurityUtils.getCurrentUserId(), Measure.EXPENSE,
+                expense.getExpenseDate(), expense.getCategory(), expense.getAmount());
+        summaryCache.evictMonths(SecurityUtils.getCurrentUserId(), expense.getExpenseDate());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ExpenseResponse> getExpensesForCurrentUser() {
+        return expenseRepository.findResponses(SecurityUtils.getCurrentUserId());
+    }
 
-        User user = getLoggedInUser();
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseResponse> getExpensesPageForCurrentUser(String cursor, int limit) {
 
-        return expenseRepository.findByUser(user)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        Long userId = SecurityUtils.getCurrentUserId();
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<ExpenseResponse> rows = after == null
+                ? expenseRepository.findPage(userId, fetch)
+                : expenseRepository.findPageAfter(userId, after.date(), after.id(), fetch);
+
+        return CursorPage.of(
+                rows,
+                limit,
+                e -> new PageCursor(e.getExpenseDate(), e.getId())
+        );
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ExpenseResponse> getExpensesForCurrentUserByMonth(
             int year,
             int month
     ) {
 
-        User user = getLoggedInUser();
-
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
 
-        return expenseRepository
-                .findByUserAndExpenseDateBetween(user, startDate, endDate)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return expenseRepository.findResponsesBetween(
+                SecurityUtils.getCurrentUserId(), startDate, endDate
+        );
     }
 
     private User getLoggedInUser() {
-
-        String email = SecurityUtils.getCurrentUserEmail();
-
-        return userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new UserNotFoundException("User not found with email: " + email)
-                );
+        // Reference proxy only: the principal already carries the id
+        return userRepository.getReferenceById(SecurityUtils.getCurrentUserId());
     }
 
     private ExpenseResponse mapToResponse(Expense expense) {
@@ -122,7 +180,8 @@ public class ExpenseServiceImpl implements ExpenseService {
                 expense.getAmount(),
                 expense.getCategory(),
                 expense.getDescription(),
-                expense.getExpenseDate()
+                expense.getExpenseDate(),
+                expense.getVersion()
         );
     }
 }
@@ -9,81 +9,80 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.opencsv.CSVWriter;
-import com.trackmymoney.backend.entity.Expense;
-import com.trackmymoney.backend.entity.Income;
-import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.repository.ExpenseRepository;
-import com.trackmymoney.backend.repository.IncomeRepository;
-import com.trackmymoney.backend.repository.UserRepository;
+import com.trackmymoney.backend.repository.ExportRepository;
 import com.trackmymoney.backend.service.ExportService;
+import com.trackmymoney.backend.service.StreamingPdfTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
 
 @Service
 public class ExportServiceImpl implements ExportService {
 
-    private final ExpenseRepository expenseRepository;
-    private final IncomeRepository incomeRepository;
-    private final UserRepository userRepository;
+    private final ExportRepository exportRepository;
+    private final int pdfFlushRows;
 
-    public ExportServiceImpl(ExpenseRepository expenseRepository, 
-                             IncomeRepository incomeRepository,
-                             UserRepository userRepository) {
-        this.expenseRepository = expenseRepository;
-        this.incomeRepository = incomeRepository;
-        this.userRepository = userRepository;
+    public ExportServiceImpl(ExportRepository exportRepository,
+                             @Value("${PDF_TABLE_FLUSH_ROWS:100}") int pdfFlushRows) {
+        this.exportRepository = exportRepository;
+        this.pdfFlushRows = pdfFlushRows;
     }
 
     @Override
-    public ByteArrayInputStream exportDataToCsv(String exportType, LocalDate startDate, LocalDate endDate, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-        try (CSVWriter writer = new CSVWriter(new OutputStreamWriter(out))) {
-            if ("expenses".equalsIgnoreCase(exportType)) {
-                List<Expense> expenses = expenseRepository.findByUserAndExpenseDateBetween(user, startDate, endDate);
-                writer.writeNext(new String[]{"ID", "Date", "Category", "Description", "Amount"});
-                for (Expense expense : expenses) {
-                    writer.writeNext(new String[]{
-                        String.valueOf(expense.getId()),
-                        expense.getExpenseDate().toString(),
-                        expense.getCategory(),
-                        expense.getDescription(),
-                        expense.getAmount().toString()
-                    });
-                }
-            } else if ("incomes".equalsIgnoreCase(exportType)) {
-                List<Income> incomes = incomeRepository.findByUserAndIncomeDateBetween(user, startDate, endDate);
-                writer.writeNext(new String[]{"ID", "Date", "Source", "Description", "Amount"});
-                for (Income income : incomes) {
-                    writer.writeNext(new String[]{
-                        String.valueOf(income.getId()),
-                        income.getIncomeDate().toString(),
-                        income.getSource(),
-                        income.getDescription(),
-                        income.getAmount().toString()
-                    });
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error exporting CSV: " + e.getMessage());
+    @Transactional(readOnly = true)
+    public void exportCsv(String exportType, LocalDate startDate, LocalDate endDate, Long userId, OutputStream out) {
+        CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        int flushEvery = exportRepository.fetchSize();
+        int[] written = {0};
+
+        // Each row goes out as it is read; flushing once per fetched batch puts it
+        // on the wire and turns a closed connection into an error that stops the query
+        RowCallbackHandler toCsv = rs -> {
+            writer.writeNext(new String[]{
+                    rs.getString(1),
+                    rs.getObject(2, LocalDate.class).toString(),
+                    rs.getString(3),
+                    rs.getString(4),
+                    rs.getBigDecimal(5).toString()
+            });
+            if (++written[0] % flushEvery == 0) flush(writer);
+        };
+
+        if ("expenses".equalsIgnoreCase(exportType)) {
+            writer.writeNext(new String[]{"ID", "Date", "Category", "Description", "Amount"});
+            flush(writer);
+            exportRepository.streamExpenses(userId, startDate, endDate, toCsv);
+        } else if ("incomes".equalsIgnoreCase(exportType)) {
+            writer.writeNext(new String[]{"ID", "Date", "Source", "Description", "Amount"});
+            flush(writer);
+            exportRepository.streamIncomes(userId, startDate, endDate, toCsv);
         }
+        flush(writer);
+    }
 
-        return new ByteArrayInputStream(out.toByteArray());
+    private static void flush(CSVWriter writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export aborted: " + e.getMessage(), e);
+        }
     }
 
     @Override
-    public ByteArrayInputStream exportDataToPdf(String exportType, LocalDate startDate, LocalDate endDate, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-
+    @Transactional(readOnly = true)
+    public void exportPdf(String exportType, LocalDate startDate, LocalDate endDate, Long userId, OutputStream out) {
         try {
             PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf);
 
@@ -94,38 +93,39 @@ public class ExportServiceImpl implements ExportService {
                     .setTextAlignment(TextAlignment.CENTER).setMarginBottom(20));
 
             float[] pointColumnWidths = {50F, 100F, 100F, 150F, 100F};
-            Table table = new Table(pointColumnWidths);
+            Table table = new Table(pointColumnWidths, true);
 
-            // Headers
+            // Rows are laid out and written in chunks as they arrive from the cursor
             if ("expenses".equalsIgnoreCase(exportType)) {
                 addTableHeader(table, "ID", "Date", "Category", "Description", "Amount");
-                List<Expense> expenses = expenseRepository.findByUserAndExpenseDateBetween(user, startDate, endDate);
-                for (Expense expense : expenses) {
-                    table.addCell(String.valueOf(expense.getId()));
-                    table.addCell(expense.getExpenseDate().toString());
-                    table.addCell(expense.getCategory());
-                    table.addCell(expense.getDescription() != null ? expense.getDescription() : "");
-                    table.addCell("$" + expense.getAmount().toString());
+                try (StreamingPdfTable rows = new StreamingPdfTable(document, table, pdfFlushRows)) {
+                    exportRepository.streamExpenses(userId, startDate, endDate, toPdfRow(rows));
                 }
             } else if ("incomes".equalsIgnoreCase(exportType)) {
                 addTableHeader(table, "ID", "Date", "Source", "Description", "Amount");
-                List<Income> incomes = incomeRepository.findByUserAndIncomeDateBetween(user, startDate, endDate);
-                for (Income income : incomes) {
-                    table.addCell(String.valueOf(income.getId()));
-                    table.addCell(income.getIncomeDate().toString());
-                    table.addCell(income.getSource());
-                    table.addCell(income.getDescription() != null ? income.getDescription() : "");
-                    table.addCell("$" + income.getAmount().toString());
+                try (StreamingPdfTable rows = new StreamingPdfTable(document, table, pdfFlushRows)) {
+                    exportRepository.streamIncomes(userId, startDate, endDate, toPdfRow(rows));
                 }
             }
 
-            document.add(table);
             document.close();
         } catch (Exception e) {
             throw new RuntimeException("Error exporting PDF: " + e.getMessage());
         }
+    }
+
+    private static RowCallbackHandler toPdfRow(StreamingPdfTable rows) {
+        return rs -> rows.addRow(
+                new Cell().add(new Paragraph(rs.getString(1))),
+                new Cell().add(new Paragraph(rs.getObject(2, LocalDate.class).toString())),
+                new Cell().add(new Paragraph(orEmpty(rs.getString(3)))),
+                new Cell().add(new Paragraph(orEmpty(rs.getString(4)))),
+                new Cell().add(new Paragraph("$" + rs.getBigDecimal(5).toString()))
+        );
+    }
 
-        return new ByteArrayInputStream(out.toByteArray());
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
     }
 
     private void addTableHeader(Table table, String... headers) {
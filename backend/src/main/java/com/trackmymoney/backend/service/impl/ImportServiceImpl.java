@@ -0,0 +1,494 @@
+package com.trackmymoney.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import com.trackmymoney.backend.dto.ImportResult;
+import com.trackmymoney.backend.exception.InvalidImportException;
+import com.trackmymoney.backend.exception.PayloadTooLargeException;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository.Measure;
+import com.trackmymoney.backend.service.ImportService;
+import com.trackmymoney.backend.service.SummaryCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk import without JPA: rows are parsed and validated one at a time from
+ * the input stream and written with JDBC batch inserts, one transaction per
+ * chunk. Memory stays flat regardless of file size; a failed chunk does not
+ * roll back chunks that were already committed.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportServiceImpl.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxErrors;
+    private final long maxRows;
+
+    public ImportServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            MonthlyRollupRepository rollupRepository,
+            SummaryCache summaryCache,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${IMPORT_BATCH_SIZE:1000}") int batchSize,
+            @Value("${IMPORT_MAX_ERRORS:100}") int maxErrors,
+            @Value("${IMPORT_MAX_ROWS:500000}") long maxRows
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public ImportResult importRows(String type, boolean json, InputStream in, Long userId) {
+        RowType rowType = RowType.of(type);
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        Progress progress = new Progress(maxErrors);
+        Chunk chunk = new Chunk(batchSize);
+
+        try (RowReader reader = json ? new JsonRowReader(in) : new CsvRowReader(in, rowType)) {
+            Map<String, String> row;
+            while ((row = reader.next()) != null) {
+                long rowNumber = reader.rowNumber();
+
+                if (rowNumber > maxRows) {
+                    progress.stopped(rowNumber, "Row limit of " + maxRows + " reached, remaining rows skipped");
+                    break;
+                }
+
+                try {
+                    chunk.add(rowNumber, rowType.toParams(row, userId, createdAt));
+                } catch (IllegalArgumentException e) {
+                    progress.error(rowNumber, e.getMessage());
+                    continue;
+                }
+
+                if (chunk.isFull()) {
+                    flush(rowType, chunk, progress, userId);
+                }
+            }
+        } catch (IOException | CsvValidationException e) {
+            // Flushed first so the stop is reported after the last row that was read
+            flush(rowType, chunk, progress, userId);
+            progress.stopped(progress.lastRow() + 1, "Unreadable input, import stopped: " + e.getMessage());
+        } catch (PayloadTooLargeException e) {
+            // Earlier chunks are committed, so keep the rows read so far and say where to resume
+            flush(rowType, chunk, progress, userId);
+            progress.stopped(progress.lastRow() + 1, e.getMessage() + ", import stopped");
+        }
+
+        flush(rowType, chunk, progress, userId);
+
+        ImportResult result = progress.result();
+        logger.info("Imported {} {} for user {} ({} failed)",
+                result.imported(), rowType.table, userId, result.failed());
+        return result;
+    }
+
+    private void flush(RowType rowType, Chunk chunk, Progress progress, Long userId) {
+        if (chunk.rows.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(rowType.insertSql, chunk.rows);
+                rollUp(rowType, chunk.rows, userId);
+                summaryCache.evictUser(userId);
+            });
+            progress.imported(chunk.rows.size(), chunk.lastRow);
+        } catch (RuntimeException e) {
+            logger.warn("Import chunk {}-{} failed", chunk.firstRow, chunk.lastRow, e);
+            progress.chunkFailed(chunk, "Rows " + chunk.firstRow + "-" + chunk.lastRow
+                    + " were not saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        chunk.clear();
+    }
+
+    // One rollup upsert per (month, category) the chunk touched, inside the chunk's transaction
+    private void rollUp(RowType rowType, List<Object[]> rows, Long userId) {
+        Map<Bucket, BigDecimal> totals = new HashMap<>();
+        Map<Bucket, Long> counts = new HashMap<>();
+
+        for (Object[] params : rows) {
+            Bucket bucket = new Bucket(
+                    ((LocalDate) params[rowType.dateParam]).withDayOfMonth(1),
+                    (String) params[rowType.categoryParam]
+            );
+            totals.merge(bucket, (BigDecimal) params[RowType.AMOUNT_PARAM], BigDecimal::add);
+            counts.merge(bucket, 1L, Long::sum);
+        }
+
+        totals.forEach((bucket, total) -> rollupRepository.record(
+                userId, rowType.measure, bucket.month(), bucket.category(), total, counts.get(bucket)
+        ));
+    }
+
+    private record Bucket(LocalDate month, String category) {
+    }
+
+    // --- Row types ---
+
+    private enum RowType {
+        EXPENSES("expenses",
+                "INSERT INTO expenses (user_id, amount, category, description, expense_date, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)",
+                Measure.EXPENSE, 2, 4,
+                "expensedate", "category", "description") {
+            @Override
+            Object[] toParams(Map<String, String> row, Long userId, Timestamp createdAt) {
+                return new Object[]{
+                        userId,
+                        amount(row),
+                        text(row, "category", true),
+                        text(row, "description", true),
+                        date(row, "expensedate"),
+                        createdAt
+                };
+            }
+        },
+        INCOMES("incomes",
+                "INSERT INTO incomes (user_id, amount, source, category, description, income_date, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                Measure.INCOME, 3, 5,
+                "incomedate", "source") {
+            @Override
+            Object[] toParams(Map<String, String> row, Long userId, Timestamp createdAt) {
+                return new Object[]{
+                        userId,
+                        amount(row),
+                        text(row, "source", true),
+                        text(row, "category", false),
+                        text(row, "description", false),
+                        date(row, "incomedate"),
+                        createdAt
+                };
+            }
+        };
+
+        // Position of the amount in toParams' array, for the rollup
+        static final int AMOUNT_PARAM = 1;
+
+        final String table;
+        final String insertSql;
+        final Measure measure;
+        final int categoryParam;
+        final int dateParam;
+        final String dateColumn;
+        final String[] requiredColumns;
+
+        RowType(String table, String insertSql, Measure measure, int categoryParam, int dateParam,
+                String dateColumn, String... requiredColumns) {
+            this.table = table;
+            this.insertSql = insertSql;
+            this.measure = measure;
+            this.categoryParam = categoryParam;
+            this.dateParam = dateParam;
+            this.dateColumn = dateColumn;
+            this.requiredColumns = requiredColumns;
+        }
+
+        /** Throws IllegalArgumentException with a user-facing message for an invalid row. */
+        abstract Object[] toParams(Map<String, String> row, Long userId, Timestamp createdAt);
+
+        static RowType of(String type) {
+            for (RowType rowType : values()) {
+                if (rowType.table.equalsIgnoreCase(type)) return rowType;
+            }
+            throw new InvalidImportException("Unsupported import type: " + type);
+        }
+
+        void checkHeader(Map<String, Integer> header) {
+            List<String> missing = new ArrayList<>();
+            if (!header.containsKey("amount")) missing.add("amount");
+            if (!header.containsKey(dateColumn) && !header.containsKey("date")) missing.add("date");
+            for (String column : requiredColumns) {
+                if (!column.equals(dateColumn) && !header.containsKey(column)) missing.add(column);
+            }
+            if (!missing.isEmpty()) {
+                throw new InvalidImportException("Missing columns: " + String.join(", ", missing));
+            }
+        }
+
+        static BigDecimal amount(Map<String, String> row) {
+            String raw = row.get("amount");
+            if (raw == null || raw.isBlank()) throw new IllegalArgumentException("Amount is required");
+
+            BigDecimal amount;
+            try {
+                amount = new BigDecimal(raw.strip().replace(",", ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount: " + raw);
+            }
+            if (amount.signum() <= 0) throw new IllegalArgumentException("Amount must be positive");
+            return amount;
+        }
+
+        static String text(Map<String, String> row, String column, boolean required) {
+            String value = row.get(column);
+            if (value == null || value.isBlank()) {
+                if (required) throw new IllegalArgumentException(capitalize(column) + " is required");
+                return null;
+            }
+            value = value.strip();
+            if (value.length() > MAX_TEXT_LENGTH) {
+                throw new IllegalArgumentException(capitalize(column) + " is longer than " + MAX_TEXT_LENGTH);
+            }
+            return value;
+        }
+
+        static LocalDate date(Map<String, String> row, String column) {
+            String raw = row.get(column);
+            if (raw == null || raw.isBlank()) raw = row.get("date");
+            if (raw == null || raw.isBlank()) throw new IllegalArgumentException("Date is required");
+
+            for (DateTimeFormatter format : DATE_FORMATS) {
+                try {
+                    return LocalDate.parse(raw.strip(), format);
+                } catch (DateTimeParseException ignored) {
+                    // try the next format
+                }
+            }
+            throw new IllegalArgumentException("Invalid date: " + raw);
+        }
+
+        private static String capitalize(String s) {
+            return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+        }
+    }
+
+    // Column names are compared case- and punctuation-insensitively: "Expense Date" == "expenseDate"
+    private static String normalize(String column) {
+        return column.replace("\uFEFF", "").replaceAll("[^A-Za-z0-9]", "").toLowerCase();
+    }
+
+    // --- Readers ---
+
+    private interface RowReader extends Closeable {
+        /** Next row keyed by normalized column name, or null at the end. */
+        Map<String, String> next() throws IOException, CsvValidationException;
+
+        long rowNumber();
+    }
+
+    private static final class CsvRowReader implements RowReader {
+
+        private final CSVReader csv;
+        private final Map<String, Integer> header = new HashMap<>();
+        private long rowNumber;
+
+        CsvRowReader(InputStream in, RowType rowType) throws IOException, CsvValidationException {
+            this.csv = new CSVReaderBuilder(new InputStreamReader(in, StandardCharsets.UTF_8)).build();
+
+            String[] names = csv.readNext();
+            if (names == null) throw new InvalidImportException("The file is empty");
+            for (int i = 0; i < names.length; i++) {
+                header.putIfAbsent(normalize(names[i]), i);
+            }
+            rowType.checkHeader(header);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException, CsvValidationException {
+            String[] cells;
+            do {
+                cells = csv.readNext();
+                if (cells == null) return null;
+            } while (cells.length == 1 && cells[0].isBlank());
+
+            rowNumber++;
+            Map<String, String> row = new HashMap<>();
+            for (Map.Entry<String, Integer> column : header.entrySet()) {
+                if (column.getValue() < cells.length) {
+                    row.put(column.getKey(), cells[column.getValue()]);
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public long rowNumber() {
+            return rowNumber;
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+    }
+
+    private final class JsonRowReader implements RowReader {
+
+        private final JsonParser parser;
+        private long rowNumber;
+
+        JsonRowReader(InputStream in) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidImportException("Expected a JSON array of objects");
+            }
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) return null;
+
+            rowNumber++;
+            Map<String, String> row = new HashMap<>();
+
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return row;
+            }
+
+            JsonNode node = objectMapper.readTree(parser);
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                if (!field.getValue().isNull()) {
+                    row.putIfAbsent(normalize(field.getKey()), field.getValue().asText());
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public long rowNumber() {
+            return rowNumber;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    // --- Bookkeeping ---
+
+    private static final class Chunk {
+
+        final List<Object[]> rows;
+        final int capacity;
+        long firstRow;
+        long lastRow;
+
+        Chunk(int capacity) {
+            this.capacity = capacity;
+            this.rows = new ArrayList<>(capacity);
+        }
+
+        void add(long rowNumber, Object[] params) {
+            if (rows.isEmpty()) firstRow = rowNumber;
+            lastRow = rowNumber;
+            rows.add(params);
+        }
+
+        boolean isFull() {
+            return rows.size() >= capacity;
+        }
+
+        void clear() {
+            rows.clear();
+        }
+    }
+
+    private static final class Progress {
+
+        private final int maxErrors;
+        private final List<ImportResult.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+        private long lastRow;
+        private Long stoppedAtRow;
+        private boolean truncated;
+
+        Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void imported(int rows, long upToRow) {
+            imported += rows;
+            lastRow = Math.max(lastRow, upToRow);
+        }
+
+        void error(long row, String message) {
+            failed++;
+            lastRow = Math.max(lastRow, row);
+            addError(row, message);
+        }
+
+        void stopped(long row, String message) {
+            stoppedAtRow = row;
+            error(row, message);
+        }
+
+        void chunkFailed(Chunk chunk, String message) {
+            failed += chunk.rows.size();
+            lastRow = Math.max(lastRow, chunk.lastRow);
+            addError(chunk.firstRow, message);
+        }
+
+        long lastRow() {
+            return lastRow;
+        }
+
+        private void addError(long row, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportResult.RowError(row, message));
+            } else {
+                truncated = true;
+            }
+        }
+
+        ImportResult result() {
+            return new ImportResult(imported, failed, stoppedAtRow, List.copyOf(errors), truncated);
+        }
+    }
+}
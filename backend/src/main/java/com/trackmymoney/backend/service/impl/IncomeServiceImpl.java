@@ -1,43 +1,59 @@
 package com.trackmymoney.backend.service.impl;
 
 import com.trackmymoney.backend.dto.CreateIncomeRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.IncomeResponse;
+import com.trackmymoney.backend.dto.PageCursor;
 import com.trackmymoney.backend.entity.Income;
 import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.exception.UserNotFoundException;
+import com.trackmymoney.backend.exception.PreconditionFailedException;
+import com.trackmymoney.backend.exception.ResourceNotFoundException;
 import com.trackmymoney.backend.repository.IncomeRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository.Measure;
 import com.trackmymoney.backend.repository.UserRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository.Replaced;
 import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.IncomeService;
+import com.trackmymoney.backend.service.SummaryCache;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class IncomeServiceImpl implements IncomeService {
 
     private final IncomeRepository incomeRepository;
     private final UserRepository userRepository;
+    private final MonthlyRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+    private final VersionedUpdateRepository versionedUpdates;
 
     public IncomeServiceImpl(
             IncomeRepository incomeRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            MonthlyRollupRepository rollupRepository,
+            SummaryCache summaryCache,
+            VersionedUpdateRepository versionedUpdates
     ) {
         this.incomeRepository = incomeRepository;
         this.userRepository = userRepository;
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
+        this.versionedUpdates = versionedUpdates;
     }
 
     private User getLoggedInUser() {
-        String email = SecurityUtils.getCurrentUserEmail();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new UserNotFoundException("User not found with email: " + email)
-                );
+        // Reference proxy only: the principal already carries the id
+        return userRepository.getReferenceById(SecurityUtils.getCurrentUserId());
     }
 
     @Override
+    @Transactional
     public IncomeResponse addIncome(CreateIncomeRequest request) {
 
         User user = getLoggedInUser();
@@ -50,11 +66,33 @@ public class IncomeServiceImpl implements IncomeService {
         income.setIncomeDate(request.getIncomeDate());
         income.setUser(user);
 
-        return mapToResponse(incomeRepository.save(income));
+        IncomeResponse saved = mapToResponse(incomeRepository.save(income));
+        rollupRepository.add(SecurityUtils.getCurrentUserId(), Measure.INCOME,
+                saved.getIncomeDate(), saved.getCategory(), saved.getAmount());
+        summaryCache.evictMonths(SecurityUtils.getCurrentUserId(), saved.getIncomeDate());
+        return saved;
     }
 
     @Override
-    public IncomeResponse updateIncome(Long id, CreateIncomeRequest request) {
+    @Transactional
+    public IncomeResponse updateIncome(Long id, CreateIncomeRequest request, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long userId = SecurityUtils.getCurrentUserId();
+            Replaced before = versionedUpdates.updateIncome(
+                    id, userId, expectedVersion,
+                    request.getAmount(), request.getSource(), request.getCategory(),
+                    request.getDescription(), request.getIncomeDate()
+            ).orElseThrow(() -> incomeRepository.existsByIdAndUserId(id, userId)
+                    ? new PreconditionFailedException("income", "Income was changed by another request")
+                    : new ResourceNotFoundException("Income not found"));
+
+            rollupRepository.replace(userId, Measure.INCOME,
+                    before.date(), before.category(), before.amount(),
+                    request.getIncomeDate(), request.getCategory(), request.getAmount());
+            summaryCache.evictMonths(userId, before.date(), request.getIncomeDate());
+            return new IncomeResponse(id, request.getAmount(), request.getSource(), request.getCategory(),
+                    request.getDescription(), request.getIncomeDate(), before.version());
+        }
 
         User user = getLoggedInUser();
 
@@ -64,17 +102,25 @@ public class IncomeServiceImpl implements IncomeService {
                         new RuntimeException("Income not found")
                 );
 
+        IncomeResponse before = mapToResponse(income);
+
         income.setAmount(request.getAmount());
         income.setSource(request.getSource());
         income.setCategory(request.getCategory());
         income.setDescription(request.getDescription());
         income.setIncomeDate(request.getIncomeDate());
 
-        return mapToResponse(incomeRepository.save(income));
+        IncomeResponse saved = mapToResponse(incomeRepository.save(income));
+        rollupRepository.replace(SecurityUtils.getCurrentUserId(), Measure.INCOME,
+                before.getIncomeDate(), before.getCategory(), before.getAmount(),
+                saved.getIncomeDate(), saved.getCategory(), saved.getAmount());
+        summaryCache.evictMonths(SecurityUtils.getCurrentUserId(), before.getIncomeDate(), saved.getIncomeDate());
+        return saved;
     }
 
 
     @Override
+    @Transactional
     public void deleteIncome(Long id) {
 
         User user = getLoggedInUser();
@@ -86,36 +132,48 @@ public class IncomeServiceImpl implements IncomeService {
                 );
 
         incomeRepository.delete(income);
+        rollupRepository.remove(SecurityUtils.getCurrentUserId(), Measure.INCOME,
+                income.getIncomeDate(), income.getCategory(), income.getAmount());
+        summaryCache.evictMonths(SecurityUtils.getCurrentUserId(), income.getIncomeDate());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<IncomeResponse> getIncomesForCurrentUser() {
+        return incomeRepository.findResponses(SecurityUtils.getCurrentUserId());
+    }
 
-        User user = getLoggedInUser();
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<IncomeResponse> getIncomesPageForCurrentUser(String cursor, int limit) {
 
-        return incomeRepository.findByUser(user)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        Long userId = SecurityUtils.getCurrentUserId();
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<IncomeResponse> rows = after == null
+                ? incomeRepository.findPage(userId, fetch)
+                : incomeRepository.findPageAfter(userId, after.date(), after.id(), fetch);
+
+        return CursorPage.of(
+                rows,
+                limit,
+                i -> new PageCursor(i.getIncomeDate(), i.getId())
+        );
     }
 
     // 📆 GET by month (existing – unchanged)
     @Override
+    @Transactional(readOnly = true)
     public List<IncomeResponse> getIncomesForCurrentUserByMonth(
             int year,
             int month
     ) {
 
-        User user = getLoggedInUser();
-
         LocalDate start = LocalDate.of(year, month, 1);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
 
-        return incomeRepository
-                .findByUserAndIncomeDateBetween(user, start, end)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return incomeRepository.findResponsesBetween(SecurityUtils.getCurrentUserId(), start, end);
     }
 
     private IncomeResponse mapToResponse(Income income) {
@@ -125,7 +183,8 @@ public class IncomeServiceImpl implements IncomeService {
                 income.getSource(),
                 income.getCategory(),
                 income.getDescription(),
-                income.getIncomeDate()
+                income.getIncomeDate(),
+                income.getVersion()
         );
     }
 }
@@ -1,16 +1,29 @@
 package com.trackmymoney.backend.service.impl;
 
+import com.trackmymoney.backend.dto.BulkSettleRequest;
+import com.trackmymoney.backend.dto.CursorPage;
 import com.trackmymoney.backend.dto.LendingRequest;
 import com.trackmymoney.backend.dto.LendingResponse;
+import com.trackmymoney.backend.dto.PageCursor;
 import com.trackmymoney.backend.entity.Lending;
 import com.trackmymoney.backend.entity.User;
+import com.trackmymoney.backend.exception.PreconditionFailedException;
+import com.trackmymoney.backend.exception.ResourceNotFoundException;
 import com.trackmymoney.backend.repository.LendingRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository.Replaced;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository.Measure;
 import com.trackmymoney.backend.repository.UserRepository;
 import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.LendingService;
+import com.trackmymoney.backend.service.SummaryCache;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -18,20 +31,29 @@ public class LendingServiceImpl implements LendingService {
 
     private final LendingRepository lendingRepository;
     private final UserRepository userRepository;
+    private final MonthlyRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+    private final VersionedUpdateRepository versionedUpdates;
 
     public LendingServiceImpl(LendingRepository lendingRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              MonthlyRollupRepository rollupRepository,
+                              SummaryCache summaryCache,
+                              VersionedUpdateRepository versionedUpdates) {
         this.lendingRepository = lendingRepository;
         this.userRepository = userRepository;
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
+        this.versionedUpdates = versionedUpdates;
     }
 
     private User currentUser() {
-        return userRepository
-                .findByEmail(SecurityUtils.getCurrentUserEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Reference proxy only: the principal already carries the id
+        return userRepository.getReferenceById(SecurityUtils.getCurrentUserId());
     }
 
     @Override
+    @Transactional
     public LendingResponse create(LendingRequest r) {
         Lending l = new Lending();
         l.setName(r.name());
@@ -44,15 +66,41 @@ public class LendingServiceImpl implements LendingService {
         l.setUser(currentUser());
         l.setSettled(false);
 
-        return map(lendingRepository.save(l));
+        Lending saved = lendingRepository.save(l);
+        rollupRepository.add(SecurityUtils.getCurrentUserId(), Measure.LENT,
+                saved.getLendDate(), null, saved.getAmount());
+        summaryCache.evictUser(SecurityUtils.getCurrentUserId());
+        return map(saved);
     }
 
     @Override
-    public LendingResponse update(Long id, LendingRequest r) {
+    @Transactional
+    public LendingResponse update(Long id, LendingRequest r, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long userId = SecurityUtils.getCurrentUserId();
+            BigDecimal amount = BigDecimal.valueOf(r.amount());
+            Replaced before = versionedUpdates.updateLending(
+                    id, userId, expectedVersion,
+                    r.name(), amount, r.lendDate(), r.dueDate()
+            ).orElseThrow(() -> lendingRepository.existsByIdAndUserId(id, userId)
+                    ? new PreconditionFailedException("lending", "Lending was changed by another request")
+                    : new ResourceNotFoundException("Lending not found"));
+
+            rollupRepository.replace(userId, Measure.LENT,
+                    before.date(), null, before.amount(),
+                    r.lendDate(), null, amount);
+            summaryCache.evictUser(userId);
+            return new LendingResponse(id, r.name(), amount,
+                    r.lendDate(), r.dueDate(), before.settled(), before.version());
+        }
+
         Lending l = lendingRepository
                 .findByIdAndUser(id, currentUser())
                 .orElseThrow(() -> new RuntimeException("Lending not found"));
 
+        LocalDate oldDate = l.getLendDate();
+        BigDecimal oldAmount = l.getAmount();
+
         l.setName(r.name());
         
         // FIX: Convert Double (Request) -> BigDecimal (Entity)
@@ -61,35 +109,76 @@ public class LendingServiceImpl implements LendingService {
         l.setLendDate(r.lendDate());
         l.setDueDate(r.dueDate());
 
-        return map(lendingRepository.save(l));
+        Lending saved = lendingRepository.save(l);
+        rollupRepository.replace(SecurityUtils.getCurrentUserId(), Measure.LENT,
+                oldDate, null, oldAmount,
+                saved.getLendDate(), null, saved.getAmount());
+        summaryCache.evictUser(SecurityUtils.getCurrentUserId());
+        return map(saved);
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         Lending l = lendingRepository
                 .findByIdAndUser(id, currentUser())
                 .orElseThrow(() -> new RuntimeException("Lending not found"));
 
         lendingRepository.delete(l);
+        rollupRepository.remove(SecurityUtils.getCurrentUserId(), Measure.LENT,
+                l.getLendDate(), null, l.getAmount());
+        summaryCache.evictUser(SecurityUtils.getCurrentUserId());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<LendingResponse> getAll() {
-        return lendingRepository
-                .findByUser(currentUser())
-                .stream()
-                .map(this::map)
-                .toList();
+        return lendingRepository.findResponses(SecurityUtils.getCurrentUserId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<LendingResponse> getPage(String cursor, int limit) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<LendingResponse> rows;
+        if (after == null) {
+            rows = lendingRepository.findPage(userId, fetch);
+        } else if (after.date() == null) {
+            rows = lendingRepository.findUndatedPageAfter(userId, after.id(), fetch);
+        } else {
+            rows = lendingRepository.findPageAfter(userId, after.date(), after.id(), fetch);
+        }
+
+        return CursorPage.of(
+                rows,
+                limit,
+                l -> new PageCursor(l.lendDate(), l.id())
+        );
     }
 
     @Override
     public void settle(Long id) {
-        Lending l = lendingRepository
-                .findByIdAndUser(id, currentUser())
-                .orElseThrow(() -> new RuntimeException("Lending not found"));
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (lendingRepository.settle(id, userId) == 0) {
+            throw new ResourceNotFoundException("Lending not found");
+        }
+        summaryCache.evictUser(userId);
+    }
 
-        l.setSettled(true);
-        lendingRepository.save(l);
+    @Override
+    public int settleAll(BulkSettleRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        int settled = request.getIds() != null && !request.getIds().isEmpty()
+                ? lendingRepository.settleAll(userId, request.getIds())
+                : lendingRepository.settleAllFor(userId, request.getCounterparty().strip());
+
+        if (settled > 0) {
+            summaryCache.evictUser(userId);
+        }
+        return settled;
     }
 
     private LendingResponse map(Lending l) {
@@ -100,7 +189,8 @@ public class LendingServiceImpl implements LendingService {
                 l.getAmount().doubleValue(),
                 l.getLendDate(),
                 l.getDueDate(),
-                l.isSettled()
+                l.isSettled(),
+                l.getVersion()
         );
     }
 }
\ No newline at end of file
@@ -1,16 +1,18 @@
 package com.trackmymoney.backend.service.impl;
 
+import com.trackmymoney.backend.dto.BulkSettleRequest;
 import com.trackmymoney.backend.dto.CreateTransactionRequest;
 import com.trackmymoney.backend.dto.TransactionResponse;
 import com.trackmymoney.backend.entity.Transaction;
 import com.trackmymoney.backend.entity.TransactionType;
 import com.trackmymoney.backend.entity.User;
-import com.trackmymoney.backend.exception.UserNotFoundException;
+import com.trackmymoney.backend.exception.ResourceNotFoundException;
 import com.trackmymoney.backend.repository.TransactionRepository;
 import com.trackmymoney.backend.repository.UserRepository;
 import com.trackmymoney.backend.security.SecurityUtils;
 import com.trackmymoney.backend.service.TransactionService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -47,56 +49,54 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionsByType(TransactionType type) {
 
-        User user = getLoggedInUser();
-
         return transactionRepository
-                .findByUserIdAndType(user.getId(), type)
+                .findByUserIdAndType(SecurityUtils.getCurrentUserId(), type)
                 .stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getUnsettledTransactions() {
 
-        User user = getLoggedInUser();
-
         return transactionRepository
-                .findByUserIdAndSettledFalse(user.getId())
+                .findByUserIdAndSettledFalse(SecurityUtils.getCurrentUserId())
                 .stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public TransactionResponse settleTransaction(Long transactionId) {
 
-        User user = getLoggedInUser();
+        // The user_id guard doubles as the ownership check: another user's
+        // transaction simply matches no row
+        if (transactionRepository.settle(transactionId, SecurityUtils.getCurrentUserId()) == 0) {
+            throw new ResourceNotFoundException("Transaction not found with id: " + transactionId);
+        }
 
-        Transaction transaction = transactionRepository.findById(transactionId)
+        return transactionRepository.findResponseById(transactionId)
                 .orElseThrow(() ->
-                        new RuntimeException("Transaction not found with id: " + transactionId)
+                        new ResourceNotFoundException("Transaction not found with id: " + transactionId)
                 );
+    }
 
-        if (!transaction.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to settle this transaction");
-        }
-
-        transaction.setSettled(true);
-        Transaction saved = transactionRepository.save(transaction);
-
-        return mapToResponse(saved);
+    @Override
+    public int settleTransactions(BulkSettleRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        return request.getIds() != null && !request.getIds().isEmpty()
+                ? transactionRepository.settleAll(userId, request.getIds())
+                : transactionRepository.settleAllFor(userId, request.getCounterparty().strip());
     }
 
     private User getLoggedInUser() {
-        String email = SecurityUtils.getCurrentUserEmail();
-
-        return userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new UserNotFoundException("User not found with email: " + email)
-                );
+        // Reference proxy only: the principal already carries the id
+        return userRepository.getReferenceById(SecurityUtils.getCurrentUserId());
     }
 
     private TransactionResponse mapToResponse(Transaction transaction) {
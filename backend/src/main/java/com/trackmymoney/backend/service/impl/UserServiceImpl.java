@@ -1,40 +1,40 @@
 package com.trackmymoney.backend.service.impl;
 
+import com.trackmymoney.backend.dto.AccountResetStatus;
 import com.trackmymoney.backend.dto.CreateUserRequest;
 import com.trackmymoney.backend.dto.UserResponse;
 import com.trackmymoney.backend.entity.User;
 import com.trackmymoney.backend.exception.DuplicateEmailException;
+import com.trackmymoney.backend.exception.PreconditionFailedException;
 import com.trackmymoney.backend.exception.UserNotFoundException;
-import com.trackmymoney.backend.repository.*;
+import com.trackmymoney.backend.repository.UserRepository;
+import com.trackmymoney.backend.security.CurrentUser;
+import com.trackmymoney.backend.security.PasswordHashingService;
+import com.trackmymoney.backend.security.PrincipalCache;
+import com.trackmymoney.backend.security.RefreshTokenService;
+import com.trackmymoney.backend.service.AccountResetService;
 import com.trackmymoney.backend.service.UserService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final IncomeRepository incomeRepository;
-    private final ExpenseRepository expenseRepository;
-    private final BorrowingRepository borrowingRepository;
-    private final LendingRepository lendingRepository;
-    private final TransactionRepository transactionRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenService refreshTokenService;
+    private final AccountResetService accountResetService;
 
     public UserServiceImpl(UserRepository userRepository,
-                           PasswordEncoder passwordEncoder,
-                           IncomeRepository incomeRepository,
-                           ExpenseRepository expenseRepository,
-                           BorrowingRepository borrowingRepository,
-                           LendingRepository lendingRepository,
-                           TransactionRepository transactionRepository) {
+                           PasswordHashingService passwordHashingService,
+                           PrincipalCache principalCache,
+                           RefreshTokenService refreshTokenService,
+                           AccountResetService accountResetService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
-        this.incomeRepository = incomeRepository;
-        this.expenseRepository = expenseRepository;
-        this.borrowingRepository = borrowingRepository;
-        this.lendingRepository = lendingRepository;
-        this.transactionRepository = transactionRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.principalCache = principalCache;
+        this.refreshTokenService = refreshTokenService;
+        this.accountResetService = accountResetService;
     }
 
     @Override
@@ -46,7 +46,7 @@ public class UserServiceImpl implements UserService {
         User user = new User();
         user.setName(request.getName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
 
         User saved = userRepository.save(user);
 
@@ -103,33 +103,39 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
         user.setName(newName);
         userRepository.save(user);
+        principalCache.evict(email);
     }
 
+    // Not @Transactional: a request waiting for a BCrypt thread must not hold
+    // a pooled connection, so the hashes are made first and the compare-and-set
+    // UPDATE commits on its own
     @Override
-    @org.springframework.transaction.annotation.Transactional
     public void changePassword(String email, String oldPassword, String newPassword) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+        String oldHash = user.getPassword();
 
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, oldHash)) {
             throw new RuntimeException("Old password does not match");
         }
+        String newHash = passwordHashingService.encode(newPassword);
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        if (userRepository.updatePasswordIfUnchanged(user.getId(), oldHash, newHash) == 0) {
+            throw new PreconditionFailedException("user", "Password was changed by another request, please retry");
+        }
+        principalCache.evict(email);
+
+        // Other devices must sign in again with the new password
+        refreshTokenService.revokeAllForUser(user.getId());
     }
 
     @Override
-    @org.springframework.transaction.annotation.Transactional
-    public void resetAccount(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new UserNotFoundException("User not found with email: " + email));
+    public AccountResetStatus resetAccount(CurrentUser user) {
+        return accountResetService.submit(user.getId(), () -> principalCache.evict(user.getEmail()));
+    }
 
-        incomeRepository.deleteByUser(user);
-        expenseRepository.deleteByUser(user);
-        borrowingRepository.deleteByUser(user);
-        lendingRepository.deleteByUser(user);
-        transactionRepository.deleteByUserId(user.getId());
+    @Override
+    public AccountResetStatus getResetStatus(Long userId, String jobId) {
+        return accountResetService.status(userId, jobId);
     }
 }
@@ -0,0 +1,60 @@
+-- Per-user access paths for the repository queries.
+-- Applied at startup by DatabaseIndexInitializer (PostgreSQL only): JPA's
+-- @Index cannot express INCLUDE columns or partial (WHERE) indexes.
+-- Every statement must be idempotent. IF NOT EXISTS matches on the name
+-- only, so a changed index gets a new name and the old one is dropped after it.
+
+-- ExpenseRepository: findByUser, findPage*, findByUserAndExpenseDateBetween; rollup rebuild
+CREATE INDEX IF NOT EXISTS idx_expenses_user_date_id
+    ON expenses (user_id, expense_date, id) INCLUDE (amount);
+
+-- Replaced by idx_expenses_user_date_id (keyset pagination needs id in the key)
+DROP INDEX IF EXISTS idx_expenses_user_date;
+
+-- IncomeRepository: findByUser, findPage*, findByUserAndIncomeDateBetween; rollup rebuild
+CREATE INDEX IF NOT EXISTS idx_incomes_user_date_id
+    ON incomes (user_id, income_date, id) INCLUDE (amount);
+
+-- Replaced by idx_incomes_user_date_id (keyset pagination needs id in the key)
+DROP INDEX IF EXISTS idx_incomes_user_date;
+
+-- BorrowingRepository: findByUser, findByUserAndDueDateBetween; SummaryRepository.financeTotals
+CREATE INDEX IF NOT EXISTS idx_borrowings_user_due
+    ON borrowings (user_id, due_date) INCLUDE (amount, settled);
+
+-- BorrowingRepository: findPage, findPageAfter; rollup rebuild
+CREATE INDEX IF NOT EXISTS idx_borrowings_user_borrow_date
+    ON borrowings (user_id, borrow_date, id);
+
+-- SummaryRepository: open and overdue borrowings
+CREATE INDEX IF NOT EXISTS idx_borrowings_user_open
+    ON borrowings (user_id, due_date) INCLUDE (amount) WHERE settled = false;
+
+-- LendingRepository: findByUser, findByUserAndDueDateBetween; SummaryRepository.financeTotals
+CREATE INDEX IF NOT EXISTS idx_lendings_user_due
+    ON lendings (user_id, due_date) INCLUDE (amount, settled);
+
+-- LendingRepository: findPage, findPageAfter, findUndatedPageAfter; rollup rebuild
+CREATE INDEX IF NOT EXISTS idx_lendings_user_lend_date
+    ON lendings (user_id, lend_date DESC NULLS LAST, id DESC);
+
+-- SummaryRepository: open and overdue lendings
+CREATE INDEX IF NOT EXISTS idx_lendings_user_open
+    ON lendings (user_id, due_date) INCLUDE (amount) WHERE settled = false;
+
+-- TransactionRepository: findByUserIdAndType
+CREATE INDEX IF NOT EXISTS idx_transactions_user_type
+    ON transactions (user_id, type);
+
+-- TransactionRepository: findByUserIdAndSettledFalse
+CREATE INDEX IF NOT EXISTS idx_transactions_user_open
+    ON transactions (user_id) WHERE settled = false;
+
+-- RefreshTokenRepository: revokeAllByUserId
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_active
+    ON refresh_tokens (user_id) WHERE revoked = false;
+
+-- SummaryRepository: month-range reads of user_month_rollup (its primary key
+-- columns are ordered by Hibernate, so user_id may not lead)
+CREATE INDEX IF NOT EXISTS idx_user_month_rollup_user_month
+    ON user_month_rollup (user_id, month) INCLUDE (income_total, expense_total, borrowed_total, lent_total);
@@ -0,0 +1,352 @@
+package com.trackmymoney.backend.config;
+
+import com.trackmymoney.backend.dto.AccountResetStatus;
+import com.trackmymoney.backend.entity.TransactionType;
+import com.trackmymoney.backend.entity.User;
+import com.trackmymoney.backend.repository.BorrowingRepository;
+import com.trackmymoney.backend.repository.ExpenseRepository;
+import com.trackmymoney.backend.repository.ExportRepository;
+import com.trackmymoney.backend.repository.IncomeRepository;
+import com.trackmymoney.backend.repository.LendingRepository;
+import com.trackmymoney.backend.repository.MonthlyRollupRepository;
+import com.trackmymoney.backend.repository.RefreshTokenRepository;
+import com.trackmymoney.backend.repository.SummaryRepository;
+import com.trackmymoney.backend.repository.TransactionRepository;
+import com.trackmymoney.backend.repository.UserRepository;
+import com.trackmymoney.backend.repository.VersionedUpdateRepository;
+import com.trackmymoney.backend.service.AccountResetService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls every per-user repository query against a seeded PostgreSQL schema,
+ * records the SQL each call sends through the DataSource, and fails if
+ * EXPLAIN shows a sequential scan of a per-user table for any of it. The
+ * schema comes from Hibernate and the indexes from DatabaseIndexInitializer,
+ * so nothing here restates the DDL or the queries.
+ *
+ * Needs a real PostgreSQL 16+ (for EXPLAIN (GENERIC_PLAN)); set
+ * PLAN_TEST_DATABASE_URL (and optionally PLAN_TEST_DATABASE_USER /
+ * PLAN_TEST_DATABASE_PASSWORD). The test works in its own throw-away schema.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${PLAN_TEST_DATABASE_URL}",
+        "spring.datasource.username=${PLAN_TEST_DATABASE_USER:postgres}",
+        "spring.datasource.password=${PLAN_TEST_DATABASE_PASSWORD:}",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "READ_REPLICA_URLS="
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DATABASE_URL", matches = ".+")
+class QueryPlanRegressionTests {
+
+    private static final int USERS = 2_000;
+    private static final int ROWS = 100_000;
+    private static final String SCHEMA = "plan_regression_" + ProcessHandle.current().pid();
+
+    private static final long USER = 42;
+    private static final long RESET_USER = 43;
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2023, 1, 31);
+
+    private static final Set<String> PER_USER_TABLES = Set.of("expenses", "incomes", "borrowings", "lendings",
+            "transactions", "refresh_tokens", "user_month_rollup");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ExpenseRepository expenseRepository;
+    @Autowired private IncomeRepository incomeRepository;
+    @Autowired private BorrowingRepository borrowingRepository;
+    @Autowired private LendingRepository lendingRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+    @Autowired private VersionedUpdateRepository versionedUpdates;
+    @Autowired private SummaryRepository summaryRepository;
+    @Autowired private MonthlyRollupRepository rollupRepository;
+    @Autowired private ExportRepository exportRepository;
+    @Autowired private AccountResetService accountResetService;
+
+    // Repository call -> the statements it sent
+    private final Map<String, List<String>> statements = new LinkedHashMap<>();
+
+    @DynamicPropertySource
+    static void schema(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+        registry.add("spring.jpa.properties.hibernate.default_schema", () -> SCHEMA);
+    }
+
+    @BeforeAll
+    void seedAndRecord() {
+        String rows = " FROM generate_series(1, " + ROWS + ") g";
+        String user = "(g % " + USERS + ") + 1";
+        String date = "date '2022-01-01' + (g % 1095)";
+
+        jdbcTemplate.execute("INSERT INTO users (id, name, email, password, created_at)"
+                + " SELECT g, 'user ' || g, 'user' || g || '@plan.test', 'x', now()"
+                + " FROM generate_series(1, " + USERS + ") g");
+        jdbcTemplate.execute("INSERT INTO expenses (user_id, amount, category, expense_date, created_at)"
+                + " SELECT " + user + ", g % 500, 'Food', " + date + ", now()" + rows);
+        jdbcTemplate.execute("INSERT INTO incomes (user_id, amount, source, income_date, created_at)"
+                + " SELECT " + user + ", g % 900, 'Salary', " + date + ", now()" + rows);
+        jdbcTemplate.execute("INSERT INTO borrowings (user_id, name, amount, borrow_date, due_date, settled)"
+                + " SELECT " + user + ", 'p' || (g % 50), g % 300, " + date + ", " + date
+                + " + 30, g % 10 <> 0" + rows);
+        jdbcTemplate.execute("INSERT INTO lendings (user_id, name, amount, lend_date, due_date, settled)"
+                + " SELECT " + user + ", 'p' || (g % 50), g % 300,"
+                + " CASE WHEN g % 20 = 0 THEN NULL ELSE " + date + " END, " + date + " + 30, g % 10 <> 0" + rows);
+        jdbcTemplate.execute("INSERT INTO transactions (user_id, amount, type, person_name, transaction_date, settled, created_at)"
+                + " SELECT " + user + ", g % 300, CASE WHEN g % 2 = 0 THEN 'LEND' ELSE 'BORROW' END,"
+                + " 'p' || (g % 50), " + date + ", g % 10 <> 0, now()" + rows);
+        jdbcTemplate.execute("INSERT INTO refresh_tokens (user_id, token_hash, expires_at, revoked, created_at)"
+                + " SELECT " + user + ", md5(g::text), now() + interval '14 days', g % 3 = 0, now()" + rows);
+        rollupRepository.rebuildAll();
+        jdbcTemplate.execute("ANALYZE");
+
+        // Everything runs in one transaction that is rolled back, so the
+        // updates leave the seeded data as it was for the next call
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User owner = userRepository.getReferenceById(USER);
+            PageRequest page = PageRequest.of(0, 51);
+
+            capture("ExpenseRepository.findByUser", () -> expenseRepository.findByUser(owner));
+            capture("ExpenseRepository.findResponses", () -> expenseRepository.findResponses(USER));
+            capture("ExpenseRepository.findResponsesBetween", () -> expenseRepository.findResponsesBetween(USER, START, END));
+            capture("ExpenseRepository.findPage", () -> expenseRepository.findPage(USER, page));
+            capture("ExpenseRepository.findPageAfter", () -> expenseRepository.findPageAfter(USER, END, 5_000L, page));
+            capture("ExpenseRepository.findByUserAndExpenseDateBetween",
+                    () -> expenseRepository.findByUserAndExpenseDateBetween(owner, START, END));
+
+            capture("IncomeRepository.findByUser", () -> incomeRepository.findByUser(owner));
+            capture("IncomeRepository.findResponses", () -> incomeRepository.findResponses(USER));
+            capture("IncomeRepository.findResponsesBetween", () -> incomeRepository.findResponsesBetween(USER, START, END));
+            capture("IncomeRepository.findPage", () -> incomeRepository.findPage(USER, page));
+            capture("IncomeRepository.findPageAfter", () -> incomeRepository.findPageAfter(USER, END, 5_000L, page));
+            capture("IncomeRepository.findByUserAndIncomeDateBetween",
+                    () -> incomeRepository.findByUserAndIncomeDateBetween(owner, START, END));
+
+            capture("BorrowingRepository.findByUser", () -> borrowingRepository.findByUser(owner));
+            capture("BorrowingRepository.findResponses", () -> borrowingRepository.findResponses(USER));
+            capture("BorrowingRepository.findResponsesBetween", () -> borrowingRepository.findResponsesBetween(USER, START, END));
+            capture("BorrowingRepository.findPage", () -> borrowingRepository.findPage(USER, page));
+            capture("BorrowingRepository.findPageAfter", () -> borrowingRepository.findPageAfter(USER, END, 5_000L, page));
+            capture("BorrowingRepository.findByUserAndDueDateBetween",
+                    () -> borrowingRepository.findByUserAndDueDateBetween(owner, START, END));
+            capture("BorrowingRepository.settleAllFor", () -> borrowingRepository.settleAllFor(USER, "p7"));
+
+            capture("LendingRepository.findByUser", () -> lendingRepository.findByUser(owner));
+            capture("LendingRepository.findResponses", () -> lendingRepository.findResponses(USER));
+            capture("LendingRepository.findResponsesBetween", () -> lendingRepository.findResponsesBetween(USER, START, END));
+            capture("LendingRepository.findPage", () -> lendingRepository.findPage(USER, page));
+            capture("LendingRepository.findPageAfter", () -> lendingRepository.findPageAfter(USER, END, 5_000L, page));
+            capture("LendingRepository.findUndatedPageAfter", () -> lendingRepository.findUndatedPageAfter(USER, 5_000L, page));
+            capture("LendingRepository.findByUserAndDueDateBetween",
+                    () -> lendingRepository.findByUserAndDueDateBetween(owner, START, END));
+            capture("LendingRepository.settleAllFor", () -> lendingRepository.settleAllFor(USER, "p7"));
+
+            capture("TransactionRepository.findByUserIdAndSettledFalse",
+                    () -> transactionRepository.findByUserIdAndSettledFalse(USER));
+            capture("TransactionRepository.findByUserIdAndType",
+                    () -> transactionRepository.findByUserIdAndType(USER, TransactionType.LEND));
+            capture("TransactionRepository.settleAllFor", () -> transactionRepository.settleAllFor(USER, "p7"));
+
+            capture("RefreshTokenRepository.revokeAllByUserId", () -> refreshTokenRepository.revokeAllByUserId(USER));
+
+            capture("VersionedUpdateRepository.updateExpense", () -> versionedUpdates.updateExpense(
+                    5_000L, USER, 0L, BigDecimal.TEN, "Food", null, END));
+
+            capture("SummaryRepository.monthlyTotals", () -> summaryRepository.monthlyTotals(USER, START, END));
+            capture("SummaryRepository.financeTotals", () -> summaryRepository.financeTotals(USER, START, END));
+            capture("SummaryRepository.dashboardTotals",
+                    () -> summaryRepository.dashboardTotals(USER, START, END, END));
+            capture("SummaryRepository.dashboardTotals (all time)",
+                    () -> summaryRepository.dashboardTotals(USER, null, null, END));
+
+            capture("MonthlyRollupRepository.rebuild", () -> rollupRepository.rebuild(USER));
+
+            capture("ExportRepository.streamExpenses", () -> exportRepository.streamExpenses(USER, START, END, rs -> {}));
+            capture("ExportRepository.streamIncomes", () -> exportRepository.streamIncomes(USER, START, END, rs -> {}));
+
+            status.setRollbackOnly();
+        });
+
+        // The reset deletes on its own thread and commits, hence its own user
+        capture("AccountResetService.submit", this::resetAndWait);
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    Stream<Arguments> repositoryStatements() {
+        return statements.entrySet().stream()
+                .flatMap(call -> call.getValue().stream().map(sql -> Arguments.of(call.getKey(), sql)));
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("repositoryStatements")
+    void usesAnIndex(String call, String sql) {
+        String plan = explain(sql);
+
+        Matcher scan = SEQ_SCAN.matcher(plan);
+        while (scan.find()) {
+            assertFalse(PER_USER_TABLES.contains(scan.group(1)),
+                    () -> "Sequential scan for " + call + ": " + sql + "\n" + plan);
+        }
+    }
+
+    private void capture(String call, Runnable repositoryCall) {
+        RecordingDataSource.start();
+        try {
+            repositoryCall.run();
+        } finally {
+            List<String> sent = RecordingDataSource.stop().stream()
+                    .filter(QueryPlanRegressionTests::isExplainable)
+                    .toList();
+            assertFalse(sent.isEmpty(), () -> call + " sent no SQL");
+            statements.put(call, sent);
+        }
+    }
+
+    private void resetAndWait() {
+        AccountResetStatus status = accountResetService.submit(RESET_USER, () -> {});
+        try {
+            while (!Set.of("COMPLETED", "FAILED").contains(status.state())) {
+                Thread.sleep(100);
+                status = accountResetService.status(RESET_USER, status.jobId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        assertTrue("COMPLETED".equals(status.state()), () -> "Account reset failed");
+    }
+
+    // Bound parameters stay unknown, so the planner costs the statement as a generic plan
+    private String explain(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') numbered.append('$').append(++parameter);
+            else numbered.append(c);
+        }
+
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class);
+        return String.join("\n", plan);
+    }
+
+    private static boolean isExplainable(String sql) {
+        String verb = sql.stripLeading().split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+        return Set.of("select", "insert", "update", "delete", "with").contains(verb);
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                            ? new RecordingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Keeps the SQL of every statement prepared while recording, from any
+     * thread: JPA, JdbcTemplate and the reset executor all go through here.
+     */
+    static final class RecordingDataSource extends DelegatingDataSource {
+
+        private static volatile List<String> recording;
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        static void start() {
+            recording = new ArrayList<>();
+        }
+
+        static List<String> stop() {
+            List<String> recorded = recording;
+            recording = null;
+            synchronized (recorded) {
+                return List.copyOf(recorded);
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recordingProxy(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recordingProxy(super.getConnection(username, password));
+        }
+
+        private static Connection recordingProxy(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        List<String> recorded = recording;
+                        if (recorded != null && method.getName().startsWith("prepare") && args[0] instanceof String sql) {
+                            synchronized (recorded) {
+                                recorded.add(sql);
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.trackmymoney.backend.repository;
+
+import com.trackmymoney.backend.dto.ExpenseResponse;
+import com.trackmymoney.backend.entity.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares loading a 100k-row expense history as managed entities (then
+ * mapped to ExpenseResponse) against the constructor-expression projection.
+ * Reports allocated bytes and time per row.
+ *
+ * Runs against the configured PostgreSQL database and only when
+ * RUN_PROJECTION_BENCHMARK=true; the seeded user is removed afterwards.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "RUN_PROJECTION_BENCHMARK", matches = "true")
+class ProjectionBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionBenchmarkTests.class);
+
+    private static final int ROWS = 100_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ExpenseRepository expenseRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+
+    @BeforeAll
+    void seed() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, email, password, created_at)"
+                        + " VALUES ('bench', ?, 'x', now()) RETURNING id",
+                Long.class,
+                "projection-bench-" + System.nanoTime() + "@example.com"
+        );
+
+        jdbcTemplate.update(
+                "INSERT INTO expenses (user_id, amount, category, description, expense_date, created_at)"
+                        + " SELECT ?, (g % 5000) / 10.0, 'Food', 'row ' || g,"
+                        + " date '2020-01-01' + (g % 2000), now()"
+                        + " FROM generate_series(1, ?) g",
+                userId, ROWS
+        );
+    }
+
+    @AfterAll
+    void cleanUp() {
+        if (userId == null) return;
+
+        jdbcTemplate.update("DELETE FROM expenses WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void projectionAllocatesLessThanEntityHydration() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Supplier<List<ExpenseResponse>> entities = () -> readWrite.execute(status -> {
+            User user = userRepository.getReferenceById(userId);
+            return expenseRepository.findByUser(user).stream()
+                    .map(e -> new ExpenseResponse(
+                            e.getId(), e.getAmount(), e.getCategory(),
+                            e.getDescription(), e.getExpenseDate(), e.getVersion()))
+                    .toList();
+        });
+        Supplier<List<ExpenseResponse>> projection = () ->
+                readOnly.execute(status -> expenseRepository.findResponses(userId));
+
+        Result entity = measure(entities);
+        Result projected = measure(projection);
+
+        logger.info(String.format(
+                "%d rows | entities: %.0f B/row, %.2f us/row | projection: %.0f B/row, %.2f us/row",
+                ROWS,
+                entity.bytesPerRow(), entity.microsPerRow(),
+                projected.bytesPerRow(), projected.microsPerRow()
+        ));
+
+        assertTrue(projected.bytesPerRow() < entity.bytesPerRow(),
+                "projection should allocate less per row than entity hydration");
+    }
+
+    private record Result(double bytesPerRow, double microsPerRow) {}
+
+    private Result measure(Supplier<List<ExpenseResponse>> load) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertEquals(ROWS, load.get().size());
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            load.get();
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+
+        double rows = (double) ROWS * ITERATIONS;
+        return new Result(bytes / rows, nanos / 1_000.0 / rows);
+    }
+}
@@ -0,0 +1,206 @@
+package com.trackmymoney.backend.service;
+
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.LineSeparator;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.trackmymoney.backend.security.CurrentUser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renders the same expense report with the per-cell styling ReportService
+ * used to have (Legacy, kept here as it was) and with ReportTemplate.
+ * Reports pages per second and allocated bytes per row.
+ *
+ * No database needed; the benchmark only runs when RUN_REPORT_BENCHMARK=true.
+ */
+class ReportTemplateBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportTemplateBenchmarkTests.class);
+
+    private static final int ROWS = 20_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+
+    private static final CurrentUser USER = new CurrentUser(1L, "Bench User", "bench@example.com", "x");
+
+    @Test
+    void formatMoneyMatchesStringFormat() {
+        String[] amounts = {"0", "0.005", "7.5", "999.999", "1000", "-1234.567", "12345678.9",
+                "100000000000000.01", "12345678901234567.891"};
+        for (String amount : amounts) {
+            BigDecimal value = new BigDecimal(amount);
+            assertEquals(Legacy.formatMoney(value), ReportTemplate.formatMoney(value), amount);
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_REPORT_BENCHMARK", matches = "true")
+    void templateAllocatesLessPerRowThanPerCellStyling() {
+        Result legacy = measure(ReportTemplateBenchmarkTests::renderLegacy);
+        Result template = measure(ReportTemplateBenchmarkTests::renderTemplate);
+
+        logger.info(String.format(
+                "%d rows | per-cell styling: %.1f pages/s, %.0f B/row | template: %.1f pages/s, %.0f B/row",
+                ROWS,
+                legacy.pagesPerSecond(), legacy.bytesPerRow(),
+                template.pagesPerSecond(), template.bytesPerRow()
+        ));
+
+        assertTrue(template.bytesPerRow() < legacy.bytesPerRow(),
+                "template should allocate less per row than per-cell styling");
+    }
+
+    private record Result(double pagesPerSecond, double bytesPerRow) {}
+
+    private interface Renderer {
+        int render(OutputStream out);
+    }
+
+    private Result measure(Renderer renderer) {
+        for (int i = 0; i < WARMUP; i++) {
+            renderer.render(OutputStream.nullOutputStream());
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long pages = 0;
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            pages += renderer.render(OutputStream.nullOutputStream());
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+
+        return new Result(pages / (nanos / 1e9), bytes / ((double) ROWS * ITERATIONS));
+    }
+
+    private static LocalDate date(int row) {
+        return LocalDate.of(2024, 1, 1).plusDays(row % 30);
+    }
+
+    private static BigDecimal amount(int row) {
+        return BigDecimal.valueOf(row % 500_000, 2);
+    }
+
+    private static int renderTemplate(OutputStream out) {
+        PdfDocument pdf = new PdfDocument(new PdfWriter(out));
+        Document document = new Document(pdf);
+        ReportTemplate template = new ReportTemplate(document);
+
+        template.addHeader("Expense Report", "JANUARY", 2024, USER);
+        Table table = new Table(UnitValue.createPercentArray(new float[]{20, 40, 20, 20}), true).useAllAvailableWidth();
+        template.addHeaderCells(table, "Date", "Description", "Category", "Amount");
+
+        try (StreamingPdfTable rows = new StreamingPdfTable(document, table, 100)) {
+            for (int i = 0; i < ROWS; i++) {
+                rows.addRow(template.dateCell(date(i)), template.textCell("row " + i),
+                        template.textCell("Food"), template.moneyCell(amount(i)));
+            }
+        }
+        template.addFooter();
+
+        int pages = pdf.getNumberOfPages();
+        document.close();
+        return pages;
+    }
+
+    private static int renderLegacy(OutputStream out) {
+        PdfDocument pdf = new PdfDocument(new PdfWriter(out));
+        Document document = new Document(pdf);
+
+        Legacy.addTitle(document, "Expense Report", "JANUARY", 2024, USER);
+        Table table = new Table(UnitValue.createPercentArray(new float[]{20, 40, 20, 20}), true).useAllAvailableWidth();
+        Legacy.addHeaderCell(table, "Date", "Description", "Category", "Amount");
+
+        try (StreamingPdfTable rows = new StreamingPdfTable(document, table, 100)) {
+            for (int i = 0; i < ROWS; i++) {
+                rows.addRow(Legacy.textCell(Legacy.formatDate(date(i))), Legacy.textCell("row " + i),
+                        Legacy.textCell("Food"), Legacy.moneyCell(amount(i)));
+            }
+        }
+        Legacy.addFooter(document);
+
+        int pages = pdf.getNumberOfPages();
+        document.close();
+        return pages;
+    }
+
+    /** ReportService's helpers before ReportTemplate, for comparison. */
+    private static final class Legacy {
+
+        static String formatDate(LocalDate date) {
+            return date.format(DateTimeFormatter.ofPattern("dd MMM yyyy"));
+        }
+
+        static String formatMoney(BigDecimal amount) {
+            return "Rs. " + String.format("%,.2f", amount);
+        }
+
+        static void addTitle(Document doc, String title, String month, int year, CurrentUser user) {
+            DeviceRgb indigo = new DeviceRgb(79, 70, 229);
+
+            Table headerTable = new Table(UnitValue.createPercentArray(new float[]{60, 40})).useAllAvailableWidth();
+            headerTable.setBorder(Border.NO_BORDER);
+            headerTable.addCell(new Cell().add(new Paragraph("TrackMyMoney").setBold().setFontSize(24).setFontColor(indigo))
+                    .setBorder(Border.NO_BORDER));
+            headerTable.addCell(new Cell().add(new Paragraph("Prepared for:\n" + user.getName() + "\n" + user.getEmail())
+                            .setFontSize(9).setTextAlignment(TextAlignment.RIGHT).setItalic().setOpacity(0.8f))
+                    .setBorder(Border.NO_BORDER));
+
+            doc.add(headerTable);
+            doc.add(new LineSeparator(new SolidLine(1f)).setMarginBottom(15).setOpacity(0.3f));
+            doc.add(new Paragraph(title).setBold().setFontSize(18).setMarginBottom(2));
+            doc.add(new Paragraph("Financial Statement: " + month + " " + year).setFontSize(11).setItalic().setMarginBottom(20));
+        }
+
+        static void addFooter(Document doc) {
+            String timestamp = ZonedDateTime.now(ZoneId.of("Asia/Kolkata"))
+                    .format(DateTimeFormatter.ofPattern("dd MMM yyyy 'at' hh:mm a"));
+            doc.add(new Paragraph("\nGenerated by TrackMyMoney on " + timestamp)
+                    .setFontSize(9).setItalic().setOpacity(0.6f).setTextAlignment(TextAlignment.CENTER));
+        }
+
+        static void addHeaderCell(Table table, String... headers) {
+            DeviceRgb indigo = new DeviceRgb(79, 70, 229);
+            for (String header : headers) {
+                table.addCell(new Cell().add(new Paragraph(header).setBold().setFontColor(new DeviceRgb(255, 255, 255)))
+                        .setBackgroundColor(indigo)
+                        .setPadding(8));
+            }
+        }
+
+        static Cell textCell(String text) {
+            return new Cell().add(new Paragraph(text)).setPadding(5);
+        }
+
+        static Cell moneyCell(BigDecimal amount) {
+            return new Cell().add(new Paragraph(formatMoney(amount)))
+                    .setTextAlignment(TextAlignment.RIGHT).setPadding(5);
+        }
+    }
+}
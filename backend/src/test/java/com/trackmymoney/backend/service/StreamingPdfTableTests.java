@@ -0,0 +1,93 @@
+package com.trackmymoney.backend.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renders a 200k-row table in a separate JVM capped at HEAP. A table kept
+ * whole until document.add needs several hundred MB for this many cells, so
+ * the child only finishes if rows really are flushed as they go.
+ */
+class StreamingPdfTableTests {
+
+    private static final int ROWS = 200_000;
+    private static final String HEAP = "-Xmx64m";
+
+    @Test
+    void rendersLargeTableUnderSmallFixedHeap() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process child = new ProcessBuilder(
+                java, HEAP, "-cp", System.getProperty("java.class.path"),
+                Render.class.getName(), String.valueOf(ROWS)
+        ).redirectErrorStream(true).start();
+
+        assertTrue(child.waitFor(10, TimeUnit.MINUTES), "Rendering timed out");
+        String output = new String(child.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertEquals(0, child.exitValue(), output);
+        assertTrue(output.contains("rows=" + ROWS), output);
+    }
+
+    /** Child process entry point: renders the rows and prints what it wrote. */
+    public static final class Render {
+
+        public static void main(String[] args) throws IOException {
+            int rowCount = Integer.parseInt(args[0]);
+            CountingOutputStream out = new CountingOutputStream();
+
+            try (Document document = new Document(new PdfDocument(new PdfWriter(out)))) {
+                Table table = new Table(UnitValue.createPercentArray(new float[]{20, 40, 20, 20}), true)
+                        .useAllAvailableWidth();
+                table.addHeaderCell("Date");
+                table.addHeaderCell("Description");
+                table.addHeaderCell("Category");
+                table.addHeaderCell("Amount");
+
+                LocalDate date = LocalDate.of(2020, 1, 1);
+                try (StreamingPdfTable rows = new StreamingPdfTable(document, table, 100)) {
+                    for (int i = 0; i < rowCount; i++) {
+                        rows.addRow(
+                                new Cell().add(new Paragraph(date.plusDays(i % 2000).toString())),
+                                new Cell().add(new Paragraph("row " + i)),
+                                new Cell().add(new Paragraph("Food")),
+                                new Cell().add(new Paragraph("Rs. " + (i % 5000) / 10.0))
+                        );
+                    }
+                    System.out.println("rows=" + rows.rows());
+                }
+            }
+            System.out.println("bytes=" + out.count);
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -61,11 +61,13 @@ function App() {
     if (!user) return;
     try {
       setInitialLoading(true);
+      // The list endpoints are paginated now; all=true keeps the full-list response
+      const full = { params: { all: true } };
       const [expRes, incRes, borRes, lenRes] = await Promise.all([
-        api.get("/expenses"),
-        api.get("/incomes"),
-        api.get("/borrowings"),
-        api.get("/lendings"),
+        api.get("/expenses", full),
+        api.get("/incomes", full),
+        api.get("/borrowings", full),
+        api.get("/lendings", full),
       ]);
 
       const mapIncome = (i) => ({
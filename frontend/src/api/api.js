@@ -18,4 +18,57 @@ api.interceptors.request.use(
   (error) => Promise.reject(error)
 );
 
+// 🔄 Access tokens are short-lived: on 401, refresh once and retry
+let refreshPromise = null;
+
+const refreshAccessToken = async () => {
+  const refreshToken = sessionStorage.getItem("refreshToken");
+  if (!refreshToken) {
+    throw new Error("No refresh token");
+  }
+
+  const res = await axios.post(`${api.defaults.baseURL}/auth/refresh`, {
+    refreshToken,
+  });
+
+  sessionStorage.setItem("token", res.data.token);
+  sessionStorage.setItem("refreshToken", res.data.refreshToken);
+  api.defaults.headers.common["Authorization"] = `Bearer ${res.data.token}`;
+  return res.data.token;
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const original = error.config;
+    const status = error.response?.status;
+
+    if (
+      (status === 401 || status === 403) &&
+      original &&
+      !original._retried &&
+      !original.url?.startsWith("/auth/")
+    ) {
+      original._retried = true;
+      try {
+        // Concurrent 401s share a single refresh call
+        refreshPromise = refreshPromise || refreshAccessToken();
+        const token = await refreshPromise;
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        sessionStorage.removeItem("token");
+        sessionStorage.removeItem("refreshToken");
+        sessionStorage.removeItem("user");
+        window.location.href = "/login";
+        return Promise.reject(refreshError);
+      } finally {
+        refreshPromise = null;
+      }
+    }
+
+    return Promise.reject(error);
+  }
+);
+
 export default api;
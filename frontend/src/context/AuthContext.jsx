@@ -27,9 +27,10 @@ export function AuthProvider({ children }) {
         password,
       });
 
-      const { token, name, email: userEmail } = res.data;
+      const { token, refreshToken, name, email: userEmail } = res.data;
 
       sessionStorage.setItem("token", token);
+      sessionStorage.setItem("refreshToken", refreshToken);
       api.defaults.headers.common["Authorization"] = `Bearer ${token}`;
 
       const loggedUser = {
@@ -63,9 +64,21 @@ export function AuthProvider({ children }) {
   };
 
   const logout = () => {
+    // Best effort: revoke the tokens server-side
+    const token = sessionStorage.getItem("token");
+    const refreshToken = sessionStorage.getItem("refreshToken");
+    api
+      .post(
+        "/auth/logout",
+        { refreshToken },
+        { headers: { Authorization: `Bearer ${token}` } }
+      )
+      .catch(() => {});
+
     setUser(null);
     sessionStorage.removeItem("user");
     sessionStorage.removeItem("token");
+    sessionStorage.removeItem("refreshToken");
     api.defaults.headers.common["Authorization"] = "";
   };
 
@@ -109,6 +109,7 @@ function Login() {
       if (response.data.token) {
         // Use auth context login logic or manual storage
         sessionStorage.setItem("token", response.data.token);
+        sessionStorage.setItem("refreshToken", response.data.refreshToken);
         sessionStorage.setItem("user", JSON.stringify({
           name: response.data.name,
           email: response.data.email
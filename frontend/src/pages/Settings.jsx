@@ -27,7 +27,15 @@ function Settings() {
     }
 
     try {
-      await api.delete("/users/reset");
+      // The reset runs as a background job; poll it until it finishes
+      let { data: job } = await api.delete("/users/reset");
+      while (job.state === "QUEUED" || job.state === "RUNNING") {
+        await new Promise((resolve) => setTimeout(resolve, 1000));
+        ({ data: job } = await api.get(`/users/reset/${job.jobId}`));
+      }
+      if (job.state !== "COMPLETED") {
+        throw new Error(job.error || "Reset failed");
+      }
       alert("Account reset successful! All data has been cleared.");
       window.location.reload(); // Refresh to clear global state
     } catch (err) {